@@ -0,0 +1,28 @@
+package com.escaperoom.benchmarks;
+
+import com.escaperoom.database.DataSourceConfig;
+import com.escaperoom.tools.SyntheticDataGenerator;
+
+import java.sql.SQLException;
+
+/**
+ * Runs the benchmarks against the embedded database profile, topped up with synthetic
+ * players, bookings and sessions from SyntheticDataGenerator.
+ */
+final class BenchmarkDatabase {
+
+    private static boolean started;
+
+    private BenchmarkDatabase() {
+    }
+
+    static synchronized void start(int players, int bookings) throws SQLException {
+        if (started) {
+            return;
+        }
+        System.setProperty("escaperoom.db.profile", DataSourceConfig.PROFILE_EMBEDDED);
+
+        new SyntheticDataGenerator(42).generate(players, bookings, bookings / 10);
+        started = true;
+    }
+}
@@ -0,0 +1,67 @@
+package com.escaperoom.benchmarks;
+
+import com.escaperoom.dao.BookingDAO;
+import com.escaperoom.dao.GameSessionDAO;
+import com.escaperoom.dao.PlayerDAO;
+import com.escaperoom.models.Booking;
+import com.escaperoom.models.GameSession;
+import com.escaperoom.models.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ResultSet-to-model mapping through the public finders, including the batched loading
+ * of rooms and booking players.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoMappingBenchmark {
+
+    private PlayerDAO playerDAO;
+    private BookingDAO bookingDAO;
+    private GameSessionDAO gameSessionDAO;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkDatabase.start(20_000, 20_000);
+        playerDAO = new PlayerDAO();
+        bookingDAO = new BookingDAO();
+        gameSessionDAO = new GameSessionDAO();
+    }
+
+    @Benchmark
+    public List<Player> playersFindAll() {
+        return playerDAO.findAll();
+    }
+
+    @Benchmark
+    public List<Player> playersFirstPage() {
+        return playerDAO.findPage(null, 100).getItems();
+    }
+
+    @Benchmark
+    public List<Booking> bookingsPageOf1000() {
+        return bookingDAO.findPage(null, null, 1000).getItems();
+    }
+
+    @Benchmark
+    public List<GameSession> sessionsFindAll() {
+        return gameSessionDAO.findAll();
+    }
+}
@@ -0,0 +1,82 @@
+package com.escaperoom.benchmarks;
+
+import com.escaperoom.dao.Leaderboard;
+import com.escaperoom.models.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getTopPlayers / rank queries on the incremental leaderboard, its update cost, and
+ * the full sort that every call used to pay.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LeaderboardBenchmark {
+
+    private static final int PLAYERS = 100_000;
+
+    private List<Player> players;
+    private Leaderboard leaderboard;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        players = SyntheticNames.players(PLAYERS, 7);
+        leaderboard = new Leaderboard();
+        leaderboard.rebuild(players);
+        random = new Random(11);
+    }
+
+    @Benchmark
+    public List<Player> top20() {
+        return leaderboard.top(20);
+    }
+
+    @Benchmark
+    public int rankOfPlayer() {
+        return leaderboard.rankOf(1 + random.nextInt(PLAYERS));
+    }
+
+    @Benchmark
+    public int recordGame() {
+        Player player = players.get(random.nextInt(PLAYERS));
+        player.setTotalGamesPlayed(player.getTotalGamesPlayed() + 1);
+        if (random.nextBoolean()) {
+            player.setGamesWon(player.getGamesWon() + 1);
+        }
+        leaderboard.put(player);
+        return leaderboard.size();
+    }
+
+    @Benchmark
+    public List<Player> fullSortTop20() {
+        List<Player> ranked = new ArrayList<>();
+        for (Player player : players) {
+            if (player.getTotalGamesPlayed() > 0) {
+                ranked.add(player);
+            }
+        }
+        ranked.sort(Comparator.comparingDouble(Player::getWinRate).reversed()
+            .thenComparing(Comparator.comparingInt(Player::getGamesWon).reversed()));
+        return ranked.subList(0, Math.min(20, ranked.size()));
+    }
+}
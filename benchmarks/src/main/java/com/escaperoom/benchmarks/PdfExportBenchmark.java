@@ -0,0 +1,69 @@
+package com.escaperoom.benchmarks;
+
+import com.escaperoom.utils.PDFExporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PDFExporter.exportToPDF for a materialized table and for the same rows streamed
+ * through an iterator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx256m")
+public class PdfExportBenchmark {
+
+    private static final String[] HEADERS = {"ID", "Room", "Scheduled Time", "Status", "Price"};
+
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private List<String[]> tableData;
+    private File target;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        tableData = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            tableData.add(new String[]{String.valueOf(i), "The Haunted Manor", "01/01/2026 18:00", "CONFIRMED", "50.00 KM"});
+        }
+        target = File.createTempFile("escaperoom-bench", ".pdf");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(target.toPath());
+    }
+
+    @Benchmark
+    public long materialized() {
+        new PDFExporter("Benchmark Report", HEADERS, tableData).exportToPDF(target.getPath());
+        return target.length();
+    }
+
+    @Benchmark
+    public long streamed() {
+        new PDFExporter("Benchmark Report", HEADERS, tableData.iterator(), rows).exportToPDF(target.getPath());
+        return target.length();
+    }
+}
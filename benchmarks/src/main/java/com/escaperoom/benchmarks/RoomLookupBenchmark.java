@@ -0,0 +1,56 @@
+package com.escaperoom.benchmarks;
+
+import com.escaperoom.dao.RoomDAO;
+import com.escaperoom.models.Room;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RoomDAO.findById served from the room cache versus going to the database every time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoomLookupBenchmark {
+
+    private RoomDAO roomDAO;
+    private int nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkDatabase.start(1_000, 1_000);
+        roomDAO = new RoomDAO();
+        roomDAO.findAll();
+    }
+
+    @Benchmark
+    public Room cached() {
+        return roomDAO.findById(nextRoomId());
+    }
+
+    @Benchmark
+    public Room cold() {
+        int id = nextRoomId();
+        RoomDAO.getCache().invalidate(id);
+        return roomDAO.findById(id);
+    }
+
+    private int nextRoomId() {
+        nextId = nextId % 8 + 1;
+        return nextId;
+    }
+}
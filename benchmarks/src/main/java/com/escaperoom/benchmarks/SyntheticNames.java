@@ -0,0 +1,54 @@
+package com.escaperoom.benchmarks;
+
+import com.escaperoom.models.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+final class SyntheticNames {
+
+    private static final String[] FIRST_NAMES = {
+        "Amar", "Emina", "Adnan", "Lejla", "Haris", "Amila", "Tarik", "Selma", "Kenan", "Ajla",
+        "John", "Jane", "Mike", "Sarah", "David", "Anna", "Mirza", "Dalila", "Faruk", "Ema"
+    };
+    private static final String[] LAST_NAMES = {
+        "Hodžić", "Begić", "Delić", "Kovačević", "Hadžić", "Mehić", "Smith", "Johnson", "Brown", "Williams",
+        "Alić", "Dajić", "Čoloman", "Husić", "Omerović", "Ibrahimović", "Jones", "Miller", "Davis", "Wilson"
+    };
+
+    private SyntheticNames() {
+    }
+
+    static String firstName(Random random) {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+    }
+
+    static String lastName(Random random) {
+        return LAST_NAMES[random.nextInt(LAST_NAMES.length)] + (random.nextInt(50) == 0 ? "-" + lastNameSuffix(random) : "");
+    }
+
+    // In-memory players with realistic name/email/statistics spread, ids 1..count.
+    static List<Player> players(int count, long seed) {
+        Random random = new Random(seed);
+        List<Player> players = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Player player = new Player();
+            player.setId(i);
+            player.setFirstName(firstName(random));
+            player.setLastName(lastName(random));
+            player.setEmail(player.getFirstName().toLowerCase() + "." + i + "@example.com");
+            int played = random.nextInt(40);
+            int won = played == 0 ? 0 : random.nextInt(played + 1);
+            player.setTotalGamesPlayed(played);
+            player.setGamesWon(won);
+            player.setGamesLost(played - won);
+            players.add(player);
+        }
+        return players;
+    }
+
+    private static String lastNameSuffix(Random random) {
+        return LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+}
@@ -1,11 +1,20 @@
 package com.escaperoom;
 
+import com.escaperoom.dao.AsyncDao;
+import com.escaperoom.dao.PlayerDAO;
+import com.escaperoom.dao.QueryPlanCheck;
 import com.escaperoom.database.DatabaseConnection;
+import com.escaperoom.utils.AlertUtil;
+import com.escaperoom.utils.ReportJobManager;
+import com.escaperoom.utils.ViewLoader;
 import com.escaperoom.views.LoginView;
 import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
+import java.io.IOException;
+import java.sql.SQLException;
+
 
 public class EscapeRoomApp extends Application {
     
@@ -16,6 +25,18 @@ public class EscapeRoomApp extends Application {
             System.err.println("WARNING: Could not connect to database!");
             System.err.println("Please ensure MySQL is running and database is created.");
             System.err.println("Run the database_schema.sql file to set up the database.");
+        } else {
+            try {
+                PlayerDAO.startStatistics();
+            } catch (IOException | SQLException e) {
+                System.err.println("Error starting player statistics: " + e.getMessage());
+                AlertUtil.showError("Player Statistics Unavailable",
+                    "Player statistics could not be started: " + e.getMessage()
+                    + "\nGame results are kept in memory and saved once statistics start. Do not close the application before then.");
+            }
+            if (Boolean.getBoolean("escaperoom.db.planCheck")) {
+                QueryPlanCheck.run();
+            }
         }
         
         primaryStage.setTitle("Escape Room Management System");
@@ -29,6 +50,15 @@ public class EscapeRoomApp extends Application {
         primaryStage.show();
     }
     
+    @Override
+    public void stop() {
+        ViewLoader.shutdown();
+        ReportJobManager.shutdown();
+        AsyncDao.shutdown();
+        PlayerDAO.shutdownStatistics();
+        DatabaseConnection.shutdown();
+    }
+    
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,224 @@
+package com.escaperoom.dao;
+
+import com.escaperoom.database.DatabaseConnection;
+import com.escaperoom.database.UnitOfWork;
+import com.escaperoom.models.Booking;
+import com.escaperoom.models.BookingStatus;
+import com.escaperoom.models.DashboardStats;
+import com.escaperoom.models.GameSession;
+import com.escaperoom.models.Player;
+import com.escaperoom.models.Room;
+import com.escaperoom.models.User;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking access to the DAOs, so a view can start independent queries together and
+ * compose the results. Calls run on a bounded executor with one thread per pooled
+ * connection: extra calls queue here rather than in the pool, and a full queue fails the
+ * call instead of blocking the caller.
+ *
+ * Each call runs in its own UnitOfWork, so a statement that fails inside the DAO completes
+ * the future exceptionally with DataAccessException rather than with the null or empty
+ * list the blocking DAO returns. A lookup that finds nothing still completes with null.
+ */
+public class AsyncDao {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = new ThreadPoolExecutor(
+        Integer.getInteger("escaperoom.async.threads", DatabaseConnection.getMaxPoolSize()),
+        Integer.getInteger("escaperoom.async.threads", DatabaseConnection.getMaxPoolSize()),
+        0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Integer.getInteger("escaperoom.async.queueSize", 256)),
+        r -> {
+            Thread thread = new Thread(r, "dao-async-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    private final RoomDAO roomDAO = new RoomDAO();
+    private final BookingDAO bookingDAO = new BookingDAO();
+    private final GameSessionDAO gameSessionDAO = new GameSessionDAO();
+    private final PlayerDAO playerDAO = new PlayerDAO();
+    private final UserDAO userDAO = new UserDAO();
+    private final DashboardStatsDAO dashboardStatsDAO = new DashboardStatsDAO();
+
+
+    public CompletableFuture<Room> findRoom(int id) {
+        return supply("room.findById", () -> roomDAO.findById(id));
+    }
+
+    public CompletableFuture<List<Room>> findAllRooms() {
+        return supply("room.findAll", roomDAO::findAll);
+    }
+
+    public CompletableFuture<List<Room>> findActiveRooms() {
+        return supply("room.findActive", roomDAO::findActive);
+    }
+
+    public CompletableFuture<Void> saveRoom(Room room) {
+        return run("room.save", () -> roomDAO.save(room));
+    }
+
+    public CompletableFuture<Void> updateRoom(Room room) {
+        return run("room.update", () -> roomDAO.update(room));
+    }
+
+    public CompletableFuture<Void> deleteRoom(int id) {
+        return run("room.delete", () -> roomDAO.delete(id));
+    }
+
+
+    public CompletableFuture<Booking> findBooking(int id) {
+        return supply("booking.findById", () -> bookingDAO.findById(id));
+    }
+
+    public CompletableFuture<Page<Booking>> findBookingPage(BookingStatus status, String cursor, int pageSize) {
+        return supply("booking.findPage", () -> bookingDAO.findPage(status, cursor, pageSize));
+    }
+
+    public CompletableFuture<Integer> countBookingsByStatus(BookingStatus status) {
+        return supply("booking.countByStatus", () -> bookingDAO.countByStatus(status));
+    }
+
+    public CompletableFuture<Void> saveBooking(Booking booking) {
+        return run("booking.save", () -> bookingDAO.save(booking));
+    }
+
+    public CompletableFuture<Void> updateBooking(Booking booking) {
+        return run("booking.update", () -> bookingDAO.update(booking));
+    }
+
+    public CompletableFuture<Void> updateBookingStatus(int bookingId, BookingStatus status) {
+        return run("booking.updateStatus", () -> bookingDAO.updateStatus(bookingId, status));
+    }
+
+    public CompletableFuture<Void> deleteBooking(int id) {
+        return run("booking.delete", () -> bookingDAO.delete(id));
+    }
+
+
+    public CompletableFuture<GameSession> findSession(int id) {
+        return supply("gameSession.findById", () -> gameSessionDAO.findById(id));
+    }
+
+    public CompletableFuture<Page<GameSession>> findSessionPage(String cursor, int pageSize) {
+        return supply("gameSession.findPage", () -> gameSessionDAO.findPage(cursor, pageSize));
+    }
+
+    public CompletableFuture<Double> getTotalRevenue(LocalDateTime start, LocalDateTime end) {
+        return supply("gameSession.totalRevenue", () -> gameSessionDAO.getTotalRevenue(start, end));
+    }
+
+    public CompletableFuture<Map<Room, Double>> getRevenueByRoom(LocalDateTime start, LocalDateTime end) {
+        return supply("gameSession.revenueByRoom", () -> gameSessionDAO.getRevenueByRoom(start, end));
+    }
+
+    public CompletableFuture<Void> saveSession(GameSession session) {
+        return run("gameSession.save", () -> gameSessionDAO.save(session));
+    }
+
+    public CompletableFuture<Void> checkIn(GameSession session) {
+        return run("gameSession.checkIn", () -> gameSessionDAO.checkIn(session));
+    }
+
+    public CompletableFuture<Void> updateSession(GameSession session) {
+        return run("gameSession.update", () -> gameSessionDAO.update(session));
+    }
+
+    public CompletableFuture<Void> deleteSession(int id) {
+        return run("gameSession.delete", () -> gameSessionDAO.delete(id));
+    }
+
+
+    public CompletableFuture<Player> findPlayer(int id) {
+        return supply("player.findById", () -> playerDAO.findById(id));
+    }
+
+    public CompletableFuture<Page<Player>> findPlayerPage(String cursor, int pageSize) {
+        return supply("player.findPage", () -> playerDAO.findPage(cursor, pageSize));
+    }
+
+    public CompletableFuture<List<Player>> searchPlayers(String query) {
+        return supply("player.search", () -> playerDAO.search(query));
+    }
+
+    public CompletableFuture<List<Player>> getTopPlayers(int limit) {
+        return supply("player.topPlayers", () -> playerDAO.getTopPlayers(limit));
+    }
+
+    public CompletableFuture<Void> savePlayer(Player player) {
+        return run("player.save", () -> playerDAO.save(player));
+    }
+
+    public CompletableFuture<Void> updatePlayer(Player player) {
+        return run("player.update", () -> playerDAO.update(player));
+    }
+
+    public CompletableFuture<Void> deletePlayer(int id) {
+        return run("player.delete", () -> playerDAO.delete(id));
+    }
+
+
+    public CompletableFuture<User> findUser(int id) {
+        return supply("user.findById", () -> userDAO.findById(id));
+    }
+
+    public CompletableFuture<List<User>> findAllUsers() {
+        return supply("user.findAll", userDAO::findAll);
+    }
+
+    public CompletableFuture<Void> saveUser(User user) {
+        return run("user.save", () -> userDAO.save(user));
+    }
+
+    public CompletableFuture<Void> updateUser(User user) {
+        return run("user.update", () -> userDAO.update(user));
+    }
+
+    public CompletableFuture<Void> deleteUser(int id) {
+        return run("user.delete", () -> userDAO.delete(id));
+    }
+
+
+    public CompletableFuture<DashboardStats> getDashboardStats() {
+        return supply("dashboard.stats", dashboardStatsDAO::getStats);
+    }
+
+
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+
+
+    private static <T> CompletableFuture<T> supply(String operation, UnitOfWork.Work<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return UnitOfWork.execute(work);
+                } catch (SQLException e) {
+                    throw new DataAccessException(operation, e.getMessage(), e);
+                }
+            }, EXECUTOR);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                new DataAccessException(operation, "too many database calls in progress, please try again", e));
+        }
+    }
+
+    private static CompletableFuture<Void> run(String operation, UnitOfWork.Action action) {
+        return supply(operation, () -> {
+            action.execute();
+            return null;
+        });
+    }
+}
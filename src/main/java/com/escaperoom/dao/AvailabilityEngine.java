@@ -0,0 +1,316 @@
+package com.escaperoom.dao;
+
+import com.escaperoom.database.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * In-memory schedule of the non-cancelled bookings of each room, used to answer overlap
+ * and next-free-slot queries without a database round-trip. A room is loaded on first use
+ * and reloaded once its TTL expires; BookingDAO pushes its own writes in between.
+ * Bookings made on another terminal only show up on reload, so answers are advisory:
+ * BookingDAO checks the overlap again in SQL before it writes a booking.
+ *
+ * Each room schedule is its own lock, and loading runs outside it: the first caller
+ * installs an empty schedule and queries the database while other callers for that room
+ * wait on its load. Writes that arrive during a load are applied to the new schedule
+ * and win over the rows the load read.
+ */
+public class AvailabilityEngine {
+
+    private static final NamedSql ROOM_DURATION = SqlRegistry.define("availability.roomDuration",
+        "SELECT duration FROM rooms WHERE id = ?");
+    private static final NamedSql ROOM_BOOKINGS = SqlRegistry.define("availability.roomBookings",
+        "SELECT b.id, b.scheduled_time, r.duration FROM bookings b JOIN rooms r ON r.id = b.room_id " +
+        "WHERE b.room_id = ? AND b.status != 'CANCELLED'");
+
+    private static final Comparator<Interval> BY_START = Comparator
+        .comparing((Interval i) -> i.start)
+        .thenComparingInt(i -> i.bookingId);
+
+    private final long ttlMillis;
+    private final Map<Integer, RoomSchedule> schedules = new ConcurrentHashMap<>();
+    private final Map<Integer, RoomSchedule> scheduleByBooking = new ConcurrentHashMap<>();
+    private final Set<RoomSchedule> loading = ConcurrentHashMap.newKeySet();
+
+    public AvailabilityEngine(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    // Availability of [start, start + room duration), ignoring excludeBookingId (0 for none).
+    public boolean isAvailable(int roomId, LocalDateTime start, int excludeBookingId) throws SQLException {
+        RoomSchedule schedule = schedule(roomId);
+        synchronized (schedule) {
+            return isFree(schedule, start, start.plusMinutes(schedule.roomDuration), excludeBookingId);
+        }
+    }
+
+    public boolean isAvailable(int roomId, LocalDateTime start, int durationMinutes,
+                               int excludeBookingId) throws SQLException {
+        RoomSchedule schedule = schedule(roomId);
+        synchronized (schedule) {
+            return isFree(schedule, start, start.plusMinutes(durationMinutes), excludeBookingId);
+        }
+    }
+
+    // Filters candidate start times down to the ones that are free for the room's duration.
+    public List<LocalDateTime> filterAvailable(int roomId, List<LocalDateTime> candidates) throws SQLException {
+        RoomSchedule schedule = schedule(roomId);
+        List<LocalDateTime> free = new ArrayList<>();
+        synchronized (schedule) {
+            for (LocalDateTime start : candidates) {
+                if (isFree(schedule, start, start.plusMinutes(schedule.roomDuration), 0)) {
+                    free.add(start);
+                }
+            }
+        }
+        return free;
+    }
+
+    // Earliest start at or after from where durationMinutes fit without overlapping a booking.
+    public LocalDateTime findNextFreeSlot(int roomId, LocalDateTime from, int durationMinutes) throws SQLException {
+        RoomSchedule schedule = schedule(roomId);
+        LocalDateTime candidate = from;
+        synchronized (schedule) {
+            for (Interval interval : schedule.intervals.tailSet(probe(from.minusMinutes(schedule.maxLength)), true)) {
+                if (!interval.start.isBefore(candidate.plusMinutes(durationMinutes))) {
+                    break;
+                }
+                if (interval.end.isAfter(candidate)) {
+                    candidate = interval.end;
+                }
+            }
+        }
+        return candidate;
+    }
+
+    public void put(int roomId, int bookingId, LocalDateTime start, int durationMinutes) {
+        remove(bookingId);
+        RoomSchedule schedule = schedules.get(roomId);
+        if (schedule != null) {
+            synchronized (schedule) {
+                schedule.add(new Interval(bookingId, start, start.plusMinutes(durationMinutes)));
+                if (!schedule.detached) {
+                    scheduleByBooking.put(bookingId, schedule);
+                }
+            }
+        }
+    }
+
+    public void remove(int bookingId) {
+        // The booking's room is not known here, so every load in flight must skip its row.
+        for (RoomSchedule schedule : loading) {
+            synchronized (schedule) {
+                if (schedule.writtenDuringLoad != null) {
+                    schedule.writtenDuringLoad.add(bookingId);
+                }
+            }
+        }
+        RoomSchedule schedule = scheduleByBooking.remove(bookingId);
+        if (schedule != null) {
+            synchronized (schedule) {
+                schedule.remove(bookingId);
+            }
+        }
+    }
+
+    public boolean contains(int bookingId) {
+        return scheduleByBooking.containsKey(bookingId);
+    }
+
+    public void invalidate(int roomId) {
+        RoomSchedule schedule = schedules.remove(roomId);
+        if (schedule != null) {
+            detach(schedule);
+        }
+    }
+
+    public void invalidateAll() {
+        for (Integer roomId : schedules.keySet()) {
+            invalidate(roomId);
+        }
+    }
+
+    private boolean isFree(RoomSchedule schedule, LocalDateTime start, LocalDateTime end, int excludeBookingId) {
+        // Only intervals starting in (start - longest booking, end) can overlap [start, end).
+        NavigableSet<Interval> window = schedule.intervals.subSet(
+            probe(start.minusMinutes(schedule.maxLength)), true, probe(end), false);
+        for (Interval interval : window) {
+            if (interval.bookingId != excludeBookingId && interval.end.isAfter(start)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private RoomSchedule schedule(int roomId) throws SQLException {
+        while (true) {
+            RoomSchedule current = schedules.get(roomId);
+            if (current != null && !current.isExpired(ttlMillis)) {
+                awaitLoad(current);
+                return current;
+            }
+
+            RoomSchedule fresh = new RoomSchedule();
+            loading.add(fresh);
+            boolean installed = current == null
+                ? schedules.putIfAbsent(roomId, fresh) == null
+                : schedules.replace(roomId, current, fresh);
+            if (installed) {
+                if (current != null) {
+                    detach(current);
+                }
+                load(roomId, fresh);
+                return fresh;
+            }
+            loading.remove(fresh);
+        }
+    }
+
+    private void load(int roomId, RoomSchedule schedule) throws SQLException {
+        try {
+            RoomRows rows = readRoom(roomId);
+            synchronized (schedule) {
+                schedule.roomDuration = rows.roomDuration;
+                for (Interval interval : rows.intervals) {
+                    if (!schedule.writtenDuringLoad.contains(interval.bookingId)) {
+                        schedule.add(interval);
+                        if (!schedule.detached) {
+                            scheduleByBooking.put(interval.bookingId, schedule);
+                        }
+                    }
+                }
+                schedule.writtenDuringLoad = null;
+                schedule.loadedAt = System.currentTimeMillis();
+            }
+            loading.remove(schedule);
+            schedule.loaded.complete(null);
+        } catch (SQLException | RuntimeException e) {
+            schedules.remove(roomId, schedule);
+            loading.remove(schedule);
+            schedule.loaded.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Reads the room's duration and bookings; runs outside the schedule's lock.
+    RoomRows readRoom(int roomId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement roomStmt = conn.prepareStatement(ROOM_DURATION.sql());
+             PreparedStatement bookingStmt = conn.prepareStatement(ROOM_BOOKINGS.sql())) {
+
+            roomStmt.setInt(1, roomId);
+            ResultSet roomRs = roomStmt.executeQuery();
+            RoomRows rows = new RoomRows(roomRs.next() ? roomRs.getInt("duration") : 0);
+
+            bookingStmt.setInt(1, roomId);
+            ResultSet rs = bookingStmt.executeQuery();
+            while (rs.next()) {
+                LocalDateTime start = rs.getTimestamp("scheduled_time").toLocalDateTime();
+                rows.intervals.add(new Interval(rs.getInt("id"), start, start.plusMinutes(rs.getInt("duration"))));
+            }
+            return rows;
+        }
+    }
+
+    private static void awaitLoad(RoomSchedule schedule) throws SQLException {
+        try {
+            schedule.loaded.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new SQLException("Error loading room schedule: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while loading room schedule", e);
+        }
+    }
+
+    // Drops the booking lookups that still point at a schedule leaving the map.
+    private void detach(RoomSchedule schedule) {
+        synchronized (schedule) {
+            schedule.detached = true;
+            for (Interval interval : schedule.intervals) {
+                scheduleByBooking.remove(interval.bookingId, schedule);
+            }
+        }
+    }
+
+    private static Interval probe(LocalDateTime start) {
+        return new Interval(Integer.MIN_VALUE, start, start);
+    }
+
+    // Guarded by its own monitor.
+    private static final class RoomSchedule {
+        private final TreeSet<Interval> intervals = new TreeSet<>(BY_START);
+        private final Map<Integer, Interval> byBooking = new HashMap<>();
+        private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+        private int roomDuration;
+        // Longest interval ever held; bounds how far back an overlapping interval can start.
+        private long maxLength;
+        // Bookings put or removed while loading, whose loaded rows are stale; null once loaded.
+        private Set<Integer> writtenDuringLoad = new HashSet<>();
+        private boolean detached;
+        private volatile long loadedAt;
+
+        private boolean isExpired(long ttlMillis) {
+            long at = loadedAt;
+            return at != 0 && System.currentTimeMillis() - at > ttlMillis;
+        }
+
+        private void add(Interval interval) {
+            if (writtenDuringLoad != null) {
+                writtenDuringLoad.add(interval.bookingId);
+            }
+            intervals.add(interval);
+            byBooking.put(interval.bookingId, interval);
+            maxLength = Math.max(maxLength, Duration.between(interval.start, interval.end).toMinutes());
+        }
+
+        private void remove(int bookingId) {
+            Interval interval = byBooking.remove(bookingId);
+            if (interval != null) {
+                intervals.remove(interval);
+            }
+        }
+    }
+
+    static final class RoomRows {
+        private final int roomDuration;
+        private final List<Interval> intervals = new ArrayList<>();
+
+        private RoomRows(int roomDuration) {
+            this.roomDuration = roomDuration;
+        }
+    }
+
+    private static final class Interval {
+        private final int bookingId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        private Interval(int bookingId, LocalDateTime start, LocalDateTime end) {
+            this.bookingId = bookingId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.escaperoom.dao;
 
 import com.escaperoom.database.DatabaseConnection;
+import com.escaperoom.database.UnitOfWork;
 import com.escaperoom.models.Booking;
 import com.escaperoom.models.BookingStatus;
 import com.escaperoom.models.Player;
@@ -9,25 +10,90 @@ import com.escaperoom.models.Room;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class BookingDAO {
+    private static final NamedSql FIND_BY_ID = SqlRegistry.define("booking.findById",
+        "SELECT * FROM bookings WHERE id = ?");
+    private static final NamedSql FIND_ALL = SqlRegistry.defineScan("booking.findAll",
+        "SELECT * FROM bookings ORDER BY scheduled_time DESC");
+    private static final NamedSql FIND_BY_ROOM = SqlRegistry.define("booking.findByRoom",
+        "SELECT * FROM bookings WHERE room_id = ? ORDER BY scheduled_time DESC");
+    private static final NamedSql FIND_BY_STATUS = SqlRegistry.define("booking.findByStatus",
+        "SELECT * FROM bookings WHERE status = ? ORDER BY scheduled_time DESC");
+    private static final NamedSql FIND_BY_DATE_RANGE = SqlRegistry.define("booking.findByDateRange",
+        "SELECT * FROM bookings WHERE scheduled_time BETWEEN ? AND ? ORDER BY scheduled_time");
+    private static final NamedSql[] FIND_PAGE = {
+        SqlRegistry.define("booking.findPage.first",
+            "SELECT * FROM bookings ORDER BY scheduled_time DESC, id DESC LIMIT ?"),
+        SqlRegistry.define("booking.findPage.first.byStatus",
+            "SELECT * FROM bookings WHERE status = ? ORDER BY scheduled_time DESC, id DESC LIMIT ?"),
+        SqlRegistry.define("booking.findPage.after",
+            "SELECT * FROM bookings WHERE scheduled_time <= ? AND (scheduled_time < ? OR id < ?) "
+            + "ORDER BY scheduled_time DESC, id DESC LIMIT ?"),
+        SqlRegistry.define("booking.findPage.after.byStatus",
+            "SELECT * FROM bookings WHERE status = ? AND scheduled_time <= ? AND (scheduled_time < ? OR id < ?) "
+            + "ORDER BY scheduled_time DESC, id DESC LIMIT ?")
+    };
+    private static final NamedSql COUNT_ALL = SqlRegistry.define("booking.countAll",
+        "SELECT COUNT(*) FROM bookings");
+    private static final NamedSql COUNT_BY_STATUS = SqlRegistry.define("booking.countByStatus",
+        "SELECT COUNT(*) FROM bookings WHERE status = ?");
+    private static final NamedSql FIND_BY_IDS = SqlRegistry.define("booking.findByIds",
+        "SELECT * FROM bookings WHERE id IN ({in})");
+    private static final NamedSql LOAD_BOOKING_PLAYERS = SqlRegistry.define("booking.loadBookingPlayers",
+        "SELECT bp.booking_id, p.* FROM booking_players bp JOIN players p ON p.id = bp.player_id "
+        + "WHERE bp.booking_id IN ({in}) ORDER BY bp.booking_id, bp.player_id");
+    private static final NamedSql SAVE = SqlRegistry.define("booking.save",
+        "INSERT INTO bookings (room_id, scheduled_time, status, number_of_players, total_price, notes) VALUES (?, ?, ?, ?, ?, ?)");
+    private static final NamedSql UPDATE = SqlRegistry.define("booking.update",
+        "UPDATE bookings SET room_id = ?, scheduled_time = ?, status = ?, number_of_players = ?, total_price = ?, notes = ? WHERE id = ?");
+    private static final NamedSql DELETE = SqlRegistry.define("booking.delete",
+        "DELETE FROM bookings WHERE id = ?");
+    private static final NamedSql UPDATE_STATUS = SqlRegistry.define("booking.updateStatus",
+        "UPDATE bookings SET status = ? WHERE id = ?");
+    private static final NamedSql INSERT_BOOKING_PLAYERS = SqlRegistry.define("booking.insertBookingPlayers",
+        "INSERT INTO booking_players (booking_id, player_id) VALUES (?, ?)");
+    private static final NamedSql DELETE_BOOKING_PLAYERS = SqlRegistry.define("booking.deleteBookingPlayers",
+        "DELETE FROM booking_players WHERE booking_id = ? AND player_id = ?");
+    private static final NamedSql LOAD_BOOKING_PLAYER_IDS = SqlRegistry.define("booking.loadBookingPlayerIds",
+        "SELECT player_id FROM booking_players WHERE booking_id = ?");
+    private static final NamedSql LOCK_ROOM = SqlRegistry.define("booking.lockRoom",
+        "SELECT duration FROM rooms WHERE id = ? FOR UPDATE");
+    private static final NamedSql COUNT_OVERLAPPING = SqlRegistry.define("booking.countOverlapping",
+        "SELECT COUNT(*) FROM bookings WHERE room_id = ? AND status != 'CANCELLED' AND id != ? "
+        + "AND scheduled_time > ? AND scheduled_time < ?");
+    
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final AvailabilityEngine AVAILABILITY = new AvailabilityEngine(
+        Long.getLong("escaperoom.availability.ttlMs", 300_000L));
     
     private final RoomDAO roomDAO = new RoomDAO();
     private final PlayerDAO playerDAO = new PlayerDAO();
     
 
     public Booking findById(int id) {
-        String sql = "SELECT * FROM bookings WHERE id = ?";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID.sql())) {
             
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
             
-            if (rs.next()) {
-                return extractBookingFromResultSet(rs, conn);
+            List<Booking> bookings = readBookings(conn, rs, new LoadContext());
+            if (!bookings.isEmpty()) {
+                return bookings.get(0);
             }
         } catch (SQLException e) {
             System.err.println("Error finding booking: " + e.getMessage());
@@ -40,15 +106,12 @@ public class BookingDAO {
 
     public List<Booking> findAll() {
         List<Booking> bookings = new ArrayList<>();
-        String sql = "SELECT * FROM bookings ORDER BY scheduled_time DESC";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(FIND_ALL.sql());
+             ResultSet rs = stmt.executeQuery()) {
             
-            while (rs.next()) {
-                bookings.add(extractBookingFromResultSet(rs, conn));
-            }
+            bookings.addAll(readBookings(conn, rs, new LoadContext()));
         } catch (SQLException e) {
             System.err.println("Error finding all bookings: " + e.getMessage());
         }
@@ -59,17 +122,14 @@ public class BookingDAO {
 
     public List<Booking> findByRoom(int roomId) {
         List<Booking> bookings = new ArrayList<>();
-        String sql = "SELECT * FROM bookings WHERE room_id = ? ORDER BY scheduled_time DESC";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_ROOM.sql())) {
             
             stmt.setInt(1, roomId);
             ResultSet rs = stmt.executeQuery();
             
-            while (rs.next()) {
-                bookings.add(extractBookingFromResultSet(rs, conn));
-            }
+            bookings.addAll(readBookings(conn, rs, new LoadContext()));
         } catch (SQLException e) {
             System.err.println("Error finding bookings by room: " + e.getMessage());
         }
@@ -80,17 +140,14 @@ public class BookingDAO {
 
     public List<Booking> findByStatus(BookingStatus status) {
         List<Booking> bookings = new ArrayList<>();
-        String sql = "SELECT * FROM bookings WHERE status = ? ORDER BY scheduled_time DESC";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_STATUS.sql())) {
             
             stmt.setString(1, status.name());
             ResultSet rs = stmt.executeQuery();
             
-            while (rs.next()) {
-                bookings.add(extractBookingFromResultSet(rs, conn));
-            }
+            bookings.addAll(readBookings(conn, rs, new LoadContext()));
         } catch (SQLException e) {
             System.err.println("Error finding bookings by status: " + e.getMessage());
         }
@@ -100,18 +157,15 @@ public class BookingDAO {
 
     public List<Booking> findByDateRange(LocalDateTime start, LocalDateTime end) {
         List<Booking> bookings = new ArrayList<>();
-        String sql = "SELECT * FROM bookings WHERE scheduled_time BETWEEN ? AND ? ORDER BY scheduled_time";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_DATE_RANGE.sql())) {
             
             stmt.setTimestamp(1, Timestamp.valueOf(start));
             stmt.setTimestamp(2, Timestamp.valueOf(end));
             ResultSet rs = stmt.executeQuery();
             
-            while (rs.next()) {
-                bookings.add(extractBookingFromResultSet(rs, conn));
-            }
+            bookings.addAll(readBookings(conn, rs, new LoadContext()));
         } catch (SQLException e) {
             System.err.println("Error finding bookings by date range: " + e.getMessage());
         }
@@ -120,19 +174,130 @@ public class BookingDAO {
     }
     
 
-    public boolean isRoomAvailable(int roomId, LocalDateTime dateTime) {
-        String sql = "SELECT COUNT(*) FROM bookings WHERE room_id = ? AND scheduled_time = ? AND status != 'CANCELLED'";
+    // Keyset pagination on (scheduled_time, id) descending; status may be null for all bookings.
+    public Page<Booking> findPage(BookingStatus status, String cursor, int pageSize) {
+        List<Booking> bookings = new ArrayList<>();
+        NamedSql sql = FIND_PAGE[(status != null ? 1 : 0) | (cursor != null ? 2 : 0)];
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql.sql())) {
             
-            stmt.setInt(1, roomId);
-            stmt.setTimestamp(2, Timestamp.valueOf(dateTime));
+            int index = 1;
+            if (status != null) {
+                stmt.setString(index++, status.name());
+            }
+            if (cursor != null) {
+                String[] keys = Page.decodeCursor(cursor, 2);
+                Timestamp scheduledTime = Timestamp.valueOf(LocalDateTime.parse(keys[0]));
+                stmt.setTimestamp(index++, scheduledTime);
+                stmt.setTimestamp(index++, scheduledTime);
+                stmt.setInt(index++, Integer.parseInt(keys[1]));
+            }
+            stmt.setInt(index, pageSize + 1);
+            ResultSet rs = stmt.executeQuery();
+            
+            bookings.addAll(readBookings(conn, rs, new LoadContext()));
+        } catch (SQLException e) {
+            System.err.println("Error finding booking page: " + e.getMessage());
+        }
+        
+        String nextCursor = null;
+        if (bookings.size() > pageSize) {
+            bookings.remove(pageSize);
+            Booking last = bookings.get(pageSize - 1);
+            nextCursor = Page.encodeCursor(last.getScheduledTime().toString(), String.valueOf(last.getId()));
+        }
+        
+        return new Page<>(bookings, nextCursor);
+    }
+    
+
+    public int countByStatus(BookingStatus status) {
+        NamedSql sql = status == null ? COUNT_ALL : COUNT_BY_STATUS;
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.sql())) {
+            
+            if (status != null) {
+                stmt.setString(1, status.name());
+            }
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return rs.getInt(1) == 0;
+                return rs.getInt(1);
             }
+        } catch (SQLException e) {
+            System.err.println("Error counting bookings: " + e.getMessage());
+        }
+        
+        return 0;
+    }
+    
+
+    // Streams bookings (status null = all) row by row from a server-side cursor, for exports too
+    // large to materialize. Rooms are resolved, players are not loaded. The stream holds a pooled
+    // connection until it is closed, so always use it in try-with-resources.
+    public Stream<Booking> streamByStatus(BookingStatus status) {
+        NamedSql sql = status == null ? FIND_ALL : FIND_BY_STATUS;
+        
+        Map<Integer, Room> rooms = new HashMap<>();
+        for (Room room : roomDAO.findAll()) {
+            rooms.put(room.getId(), room);
+        }
+        
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            stmt = conn.prepareStatement(sql.sql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            if (status != null) {
+                stmt.setString(1, status.name());
+            }
+            ResultSet rs = stmt.executeQuery();
+            
+            Spliterator<Booking> rows = new Spliterators.AbstractSpliterator<Booking>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super Booking> action) {
+                    try {
+                        if (!rs.next()) {
+                            return false;
+                        }
+                        Booking booking = extractBookingFromResultSet(rs);
+                        booking.setRoom(rooms.get(rs.getInt("room_id")));
+                        action.accept(booking);
+                        return true;
+                    } catch (SQLException e) {
+                        throw new RuntimeException("Error streaming bookings: " + e.getMessage(), e);
+                    }
+                }
+            };
+            Connection streamConn = conn;
+            PreparedStatement streamStmt = stmt;
+            return StreamSupport.stream(rows, false).onClose(() -> closeQuietly(streamStmt, streamConn));
+        } catch (SQLException e) {
+            System.err.println("Error streaming bookings: " + e.getMessage());
+            closeQuietly(stmt, conn);
+        }
+        
+        return Stream.empty();
+    }
+    
+
+    public static AvailabilityEngine getAvailability() {
+        return AVAILABILITY;
+    }
+    
+
+    // True when a booking starting at dateTime would not overlap any non-cancelled booking of the room.
+    public boolean isRoomAvailable(int roomId, LocalDateTime dateTime) {
+        return isRoomAvailable(roomId, dateTime, 0);
+    }
+    
+
+    public boolean isRoomAvailable(int roomId, LocalDateTime dateTime, int excludeBookingId) {
+        try {
+            return AVAILABILITY.isAvailable(roomId, dateTime, excludeBookingId);
         } catch (SQLException e) {
             System.err.println("Error checking room availability: " + e.getMessage());
         }
@@ -141,69 +306,143 @@ public class BookingDAO {
     }
     
 
-    public void save(Booking booking) {
-        String sql = "INSERT INTO bookings (room_id, scheduled_time, status, number_of_players, total_price, notes) VALUES (?, ?, ?, ?, ?, ?)";
+    public List<LocalDateTime> findAvailableSlots(int roomId, List<LocalDateTime> candidates) {
+        try {
+            return AVAILABILITY.filterAvailable(roomId, candidates);
+        } catch (SQLException e) {
+            System.err.println("Error checking room availability: " + e.getMessage());
+        }
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            stmt.setInt(1, booking.getRoom().getId());
-            stmt.setTimestamp(2, Timestamp.valueOf(booking.getScheduledTime()));
-            stmt.setString(3, booking.getStatus().name());
-            stmt.setInt(4, booking.getNumberOfPlayers());
-            stmt.setDouble(5, booking.getTotalPrice());
-            stmt.setString(6, booking.getNotes());
-            
-            stmt.executeUpdate();
+        return new ArrayList<>();
+    }
+    
+
+    public LocalDateTime findNextFreeSlot(int roomId, LocalDateTime from, int durationMinutes) {
+        try {
+            return AVAILABILITY.findNextFreeSlot(roomId, from, durationMinutes);
+        } catch (SQLException e) {
+            System.err.println("Error finding next free slot: " + e.getMessage());
+        }
+        
+        return null;
+    }
+    
+
+    // False when the booking was not saved, e.g. because its slot was taken in the meantime.
+    public boolean save(Booking booking) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
             
-            ResultSet keys = stmt.getGeneratedKeys();
-            if (keys.next()) {
-                int bookingId = keys.getInt(1);
-                booking.setId(bookingId);
+            try (PreparedStatement stmt = conn.prepareStatement(SAVE.sql(), Statement.RETURN_GENERATED_KEYS)) {
+                if (overlapsOtherBooking(conn, booking)) {
+                    conn.rollback();
+                    System.err.println("Error saving booking: room " + booking.getRoom().getId()
+                        + " is already booked at " + booking.getScheduledTime());
+                    return false;
+                }
+                
+                stmt.setInt(1, booking.getRoom().getId());
+                stmt.setTimestamp(2, Timestamp.valueOf(booking.getScheduledTime()));
+                stmt.setString(3, booking.getStatus().name());
+                stmt.setInt(4, booking.getNumberOfPlayers());
+                stmt.setDouble(5, booking.getTotalPrice());
+                stmt.setString(6, booking.getNotes());
                 
-                // Save booking_players relationships
-                saveBookingPlayers(conn, bookingId, booking.getPlayers());
+                stmt.executeUpdate();
+                
+                ResultSet keys = stmt.getGeneratedKeys();
+                if (keys.next()) {
+                    int bookingId = keys.getInt(1);
+                    
+                    // Save booking_players relationships
+                    insertBookingPlayers(conn, bookingId, playerIds(booking.getPlayers()));
+                    conn.commit();
+                    booking.setId(bookingId);
+                    UnitOfWork.afterCommit(() -> trackAvailability(booking));
+                    return true;
+                }
+                conn.rollback();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
         } catch (SQLException e) {
             System.err.println("Error saving booking: " + e.getMessage());
         }
+        
+        return false;
     }
     
 
-    public void update(Booking booking) {
-        String sql = "UPDATE bookings SET room_id = ?, scheduled_time = ?, status = ?, number_of_players = ?, total_price = ?, notes = ? WHERE id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, booking.getRoom().getId());
-            stmt.setTimestamp(2, Timestamp.valueOf(booking.getScheduledTime()));
-            stmt.setString(3, booking.getStatus().name());
-            stmt.setInt(4, booking.getNumberOfPlayers());
-            stmt.setDouble(5, booking.getTotalPrice());
-            stmt.setString(6, booking.getNotes());
-            stmt.setInt(7, booking.getId());
-            
-            stmt.executeUpdate();
-            
-            // Update booking_players relationships
-            deleteBookingPlayers(conn, booking.getId());
-            saveBookingPlayers(conn, booking.getId(), booking.getPlayers());
+    // False when the booking was not updated, e.g. because its new slot overlaps another booking.
+    public boolean update(Booking booking) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
             
+            try (PreparedStatement stmt = conn.prepareStatement(UPDATE.sql())) {
+                if (overlapsOtherBooking(conn, booking)) {
+                    conn.rollback();
+                    System.err.println("Error updating booking: room " + booking.getRoom().getId()
+                        + " is already booked at " + booking.getScheduledTime());
+                    return false;
+                }
+                
+                stmt.setInt(1, booking.getRoom().getId());
+                stmt.setTimestamp(2, Timestamp.valueOf(booking.getScheduledTime()));
+                stmt.setString(3, booking.getStatus().name());
+                stmt.setInt(4, booking.getNumberOfPlayers());
+                stmt.setDouble(5, booking.getTotalPrice());
+                stmt.setString(6, booking.getNotes());
+                stmt.setInt(7, booking.getId());
+                
+                stmt.executeUpdate();
+                
+                // Only touch the booking_players links that actually changed
+                Set<Integer> current = loadBookingPlayerIds(conn, booking.getId());
+                Set<Integer> wanted = playerIds(booking.getPlayers());
+                
+                Set<Integer> removed = new LinkedHashSet<>(current);
+                removed.removeAll(wanted);
+                Set<Integer> added = new LinkedHashSet<>(wanted);
+                added.removeAll(current);
+                
+                deleteBookingPlayers(conn, booking.getId(), removed);
+                insertBookingPlayers(conn, booking.getId(), added);
+                
+                conn.commit();
+                UnitOfWork.afterCommit(() -> trackAvailability(booking));
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             System.err.println("Error updating booking: " + e.getMessage());
         }
+        
+        return false;
     }
     
 
     public void delete(int id) {
-        String sql = "DELETE FROM bookings WHERE id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
             
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
+            try (PreparedStatement stmt = conn.prepareStatement(DELETE.sql())) {
+                // The booking's game sessions go with it (ON DELETE CASCADE), so take them out of the revenue rollup,
+                // the room ratings and the players' statistics first
+                GameSessionDAO.RemovedSessions removed =
+                    GameSessionDAO.subtractFromAggregates(conn, "booking_id", id, Collections.emptySet());
+                
+                stmt.setInt(1, id);
+                stmt.executeUpdate();
+                conn.commit();
+                removed.committed();
+                UnitOfWork.afterCommit(() -> AVAILABILITY.remove(id));
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             System.err.println("Error deleting booking: " + e.getMessage());
         }
@@ -211,72 +450,224 @@ public class BookingDAO {
     
 
     public void updateStatus(int bookingId, BookingStatus status) {
-        String sql = "UPDATE bookings SET status = ? WHERE id = ?";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_STATUS.sql())) {
             
             stmt.setString(1, status.name());
             stmt.setInt(2, bookingId);
             stmt.executeUpdate();
+            
+            UnitOfWork.afterCommit(() -> {
+                if (status == BookingStatus.CANCELLED) {
+                    AVAILABILITY.remove(bookingId);
+                } else if (!AVAILABILITY.contains(bookingId)) {
+                    // A cancelled booking came back; its room is not known here, so reload lazily
+                    AVAILABILITY.invalidateAll();
+                }
+            });
         } catch (SQLException e) {
             System.err.println("Error updating booking status: " + e.getMessage());
         }
     }
     
 
-    private void saveBookingPlayers(Connection conn, int bookingId, List<Player> players) throws SQLException {
-        String sql = "INSERT INTO booking_players (booking_id, player_id) VALUES (?, ?)";
+    // Closing the statement first releases the server-side cursor before the connection goes back to the pool.
+    private static void closeQuietly(Statement stmt, Connection conn) {
+        try {
+            if (stmt != null) {
+                stmt.close();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error closing booking stream: " + e.getMessage());
+        }
+        try {
+            if (conn != null) {
+                conn.close();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error closing booking stream: " + e.getMessage());
+        }
+    }
+    
+
+    // Whether a pending or confirmed booking would overlap another booking of its room. The
+    // availability engine answers first, but it can miss bookings made on another terminal
+    // until its schedule reloads, so SQL decides, with the room row locked until commit.
+    // Completed walk-ins record a game that already happened and are not checked.
+    private boolean overlapsOtherBooking(Connection conn, Booking booking) throws SQLException {
+        if (booking.getStatus() != BookingStatus.PENDING && booking.getStatus() != BookingStatus.CONFIRMED) {
+            return false;
+        }
+        int roomId = booking.getRoom().getId();
+        LocalDateTime start = booking.getScheduledTime();
+        if (!isRoomAvailable(roomId, start, booking.getId())) {
+            return true;
+        }
         
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            for (Player player : players) {
+        int duration;
+        try (PreparedStatement stmt = conn.prepareStatement(LOCK_ROOM.sql())) {
+            stmt.setInt(1, roomId);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                return false;
+            }
+            duration = rs.getInt(1);
+        }
+        
+        // Every booking of the room lasts the room's duration, so an overlap starts within one duration either side
+        try (PreparedStatement stmt = conn.prepareStatement(COUNT_OVERLAPPING.sql())) {
+            stmt.setInt(1, roomId);
+            stmt.setInt(2, booking.getId());
+            stmt.setTimestamp(3, Timestamp.valueOf(start.minusMinutes(duration)));
+            stmt.setTimestamp(4, Timestamp.valueOf(start.plusMinutes(duration)));
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() && rs.getInt(1) > 0;
+        }
+    }
+    
+
+    private void trackAvailability(Booking booking) {
+        if (booking.getStatus() == BookingStatus.CANCELLED) {
+            AVAILABILITY.remove(booking.getId());
+        } else {
+            AVAILABILITY.put(booking.getRoom().getId(), booking.getId(), booking.getScheduledTime(),
+                booking.getRoom().getDuration());
+        }
+    }
+    
+
+    private void insertBookingPlayers(Connection conn, int bookingId, Collection<Integer> playerIds) throws SQLException {
+        if (playerIds.isEmpty()) {
+            return;
+        }
+        
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_BOOKING_PLAYERS.sql())) {
+            for (Integer playerId : playerIds) {
                 stmt.setInt(1, bookingId);
-                stmt.setInt(2, player.getId());
-                stmt.executeUpdate();
+                stmt.setInt(2, playerId);
+                stmt.addBatch();
             }
+            stmt.executeBatch();
         }
     }
     
 
-    private void deleteBookingPlayers(Connection conn, int bookingId) throws SQLException {
-        String sql = "DELETE FROM booking_players WHERE booking_id = ?";
+    private void deleteBookingPlayers(Connection conn, int bookingId, Collection<Integer> playerIds) throws SQLException {
+        if (playerIds.isEmpty()) {
+            return;
+        }
         
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, bookingId);
-            stmt.executeUpdate();
+        try (PreparedStatement stmt = conn.prepareStatement(DELETE_BOOKING_PLAYERS.sql())) {
+            for (Integer playerId : playerIds) {
+                stmt.setInt(1, bookingId);
+                stmt.setInt(2, playerId);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
         }
     }
     
 
-    private List<Player> loadBookingPlayers(Connection conn, int bookingId) throws SQLException {
-        List<Player> players = new ArrayList<>();
-        String sql = "SELECT player_id FROM booking_players WHERE booking_id = ?";
+    static Set<Integer> loadBookingPlayerIds(Connection conn, int bookingId) throws SQLException {
+        Set<Integer> playerIds = new LinkedHashSet<>();
         
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(LOAD_BOOKING_PLAYER_IDS.sql())) {
             stmt.setInt(1, bookingId);
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
-                int playerId = rs.getInt("player_id");
-                Player player = playerDAO.findById(playerId);
-                if (player != null) {
-                    players.add(player);
+                playerIds.add(rs.getInt("player_id"));
+            }
+        }
+        
+        return playerIds;
+    }
+    
+
+    private static Set<Integer> playerIds(List<Player> players) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        if (players != null) {
+            for (Player player : players) {
+                ids.add(player.getId());
+            }
+        }
+        return ids;
+    }
+    
+
+    Map<Integer, Booking> findByIds(Connection conn, Collection<Integer> ids, LoadContext context) throws SQLException {
+        Map<Integer, Booking> bookings = new HashMap<>();
+        
+        for (List<Integer> chunk : InClause.partition(ids)) {
+            try (PreparedStatement stmt = conn.prepareStatement(FIND_BY_IDS.expand(InClause.paddedSize(chunk.size())))) {
+                InClause.bind(stmt, 1, chunk);
+                ResultSet rs = stmt.executeQuery();
+                
+                for (Booking booking : readBookings(conn, rs, context)) {
+                    bookings.put(booking.getId(), booking);
                 }
             }
         }
         
-        return players;
+        return bookings;
     }
     
 
-    private Booking extractBookingFromResultSet(ResultSet rs, Connection conn) throws SQLException {
+    // Maps a whole result set and then resolves rooms and players with one IN query per
+    // 500 keys instead of one findById per row.
+    private List<Booking> readBookings(Connection conn, ResultSet rs, LoadContext context) throws SQLException {
+        List<Booking> bookings = new ArrayList<>();
+        List<Integer> roomIds = new ArrayList<>();
+        
+        while (rs.next()) {
+            bookings.add(extractBookingFromResultSet(rs));
+            roomIds.add(rs.getInt("room_id"));
+        }
+        
+        if (bookings.isEmpty()) {
+            return bookings;
+        }
+        
+        roomDAO.loadInto(conn, roomIds, context.rooms);
+        for (int i = 0; i < bookings.size(); i++) {
+            bookings.get(i).setRoom(context.rooms.get(roomIds.get(i)));
+        }
+        
+        loadBookingPlayers(conn, bookings, context.players);
+        
+        return bookings;
+    }
+    
+
+    private void loadBookingPlayers(Connection conn, List<Booking> bookings, Map<Integer, Player> players) throws SQLException {
+        Map<Integer, Booking> byId = new LinkedHashMap<>();
+        for (Booking booking : bookings) {
+            byId.put(booking.getId(), booking);
+        }
+        
+        for (List<Integer> chunk : InClause.partition(byId.keySet())) {
+            try (PreparedStatement stmt = conn.prepareStatement(LOAD_BOOKING_PLAYERS.expand(InClause.paddedSize(chunk.size())))) {
+                InClause.bind(stmt, 1, chunk);
+                ResultSet rs = stmt.executeQuery();
+                
+                while (rs.next()) {
+                    int playerId = rs.getInt("id");
+                    Player player = players.get(playerId);
+                    if (player == null) {
+                        player = playerDAO.extractPlayerFromResultSet(rs);
+                        players.put(playerId, player);
+                    }
+                    byId.get(rs.getInt("booking_id")).getPlayers().add(player);
+                }
+            }
+        }
+    }
+    
+
+    private Booking extractBookingFromResultSet(ResultSet rs) throws SQLException {
         Booking booking = new Booking();
         booking.setId(rs.getInt("id"));
         
-        int roomId = rs.getInt("room_id");
-        Room room = roomDAO.findById(roomId);
-        booking.setRoom(room);
-        
         Timestamp scheduledTime = rs.getTimestamp("scheduled_time");
         if (scheduledTime != null) {
             booking.setScheduledTime(scheduledTime.toLocalDateTime());
@@ -291,9 +682,6 @@ public class BookingDAO {
         booking.setNumberOfPlayers(rs.getInt("number_of_players"));
         booking.setTotalPrice(rs.getDouble("total_price"));
         booking.setNotes(rs.getString("notes"));
-
-        List<Player> players = loadBookingPlayers(conn, booking.getId());
-        booking.setPlayers(players);
         
         return booking;
     }
@@ -0,0 +1,69 @@
+package com.escaperoom.dao;
+
+import com.escaperoom.database.DatabaseConnection;
+import com.escaperoom.models.DashboardStats;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+
+public class DashboardStatsDAO {
+    
+    private static final NamedSql LOAD_STATS = SqlRegistry.define("dashboard.loadStats",
+        "SELECT "
+        + "(SELECT COUNT(*) FROM rooms) AS total_rooms, "
+        + "(SELECT COUNT(*) FROM bookings WHERE scheduled_time BETWEEN ? AND ?) AS bookings_today, "
+        + "(SELECT COALESCE(SUM(revenue), 0) FROM daily_room_revenue WHERE " + RevenueWindow.ROLLUP_CONDITION + ") + "
+        + "(SELECT COALESCE(SUM(revenue), 0) FROM game_sessions WHERE " + RevenueWindow.RAW_CONDITION + ") AS month_revenue, "
+        + "(SELECT COUNT(*) FROM players) AS total_players");
+    private static final long TTL_MILLIS = Long.getLong("escaperoom.dashboard.statsTtlMs", 30_000L);
+    
+    private static volatile DashboardStats cached;
+    private static volatile long cachedAtMillis;
+    
+
+    public DashboardStats getStats() {
+        DashboardStats snapshot = cached;
+        if (snapshot != null && System.currentTimeMillis() - cachedAtMillis < TTL_MILLIS) {
+            return snapshot;
+        }
+        
+        snapshot = loadStats();
+        if (snapshot != null) {
+            cached = snapshot;
+            cachedAtMillis = System.currentTimeMillis();
+        }
+        return snapshot;
+    }
+    
+
+    // All four dashboard cards in a single round-trip
+    private DashboardStats loadStats() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(LOAD_STATS.sql())) {
+            
+            stmt.setTimestamp(1, Timestamp.valueOf(today.atStartOfDay()));
+            stmt.setTimestamp(2, Timestamp.valueOf(today.atTime(23, 59, 59)));
+            RevenueWindow monthToDate = new RevenueWindow(today.withDayOfMonth(1).atStartOfDay(), now);
+            monthToDate.bindRaw(stmt, monthToDate.bindRollup(stmt, 3));
+            ResultSet rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                return new DashboardStats(
+                    rs.getInt("total_rooms"),
+                    rs.getInt("bookings_today"),
+                    rs.getDouble("month_revenue"),
+                    rs.getInt("total_players"),
+                    now);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading dashboard statistics: " + e.getMessage());
+        }
+        
+        return null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.escaperoom.dao;
+
+import java.sql.SQLException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Failure of a call made through AsyncDao. The operation names the DAO call, and the
+ * cause is the SQLException the DAO ran into, or the executor's rejection when too
+ * many calls are already queued.
+ */
+public class DataAccessException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String operation;
+
+    public DataAccessException(String operation, String message, Throwable cause) {
+        super(operation + ": " + message, cause);
+        this.operation = operation;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    // The SQLSTATE of the underlying database error, or null when the call never reached the database
+    public String getSQLState() {
+        return getCause() instanceof SQLException ? ((SQLException) getCause()).getSQLState() : null;
+    }
+
+    public boolean isRejected() {
+        return getCause() instanceof RejectedExecutionException;
+    }
+}
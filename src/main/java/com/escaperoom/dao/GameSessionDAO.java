@@ -1,7 +1,9 @@
 package com.escaperoom.dao;
 
 import com.escaperoom.database.DatabaseConnection;
+import com.escaperoom.database.UnitOfWork;
 import com.escaperoom.models.Booking;
+import com.escaperoom.models.BookingStatus;
 import com.escaperoom.models.GameSession;
 import com.escaperoom.models.Player;
 import com.escaperoom.models.Room;
@@ -9,28 +11,72 @@ import com.escaperoom.models.Room;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 
 public class GameSessionDAO {
     
+    private static final NamedSql FIND_BY_ID = SqlRegistry.define("gameSession.findById",
+        "SELECT * FROM game_sessions WHERE id = ?");
+    private static final NamedSql FIND_ALL = SqlRegistry.defineScan("gameSession.findAll",
+        "SELECT * FROM game_sessions ORDER BY start_time DESC");
+    private static final NamedSql FIND_BY_ROOM = SqlRegistry.define("gameSession.findByRoom",
+        "SELECT * FROM game_sessions WHERE room_id = ? ORDER BY start_time DESC");
+    private static final NamedSql FIND_BY_DATE_RANGE = SqlRegistry.define("gameSession.findByDateRange",
+        "SELECT * FROM game_sessions WHERE start_time BETWEEN ? AND ? ORDER BY start_time");
+    private static final NamedSql FIND_FIRST_PAGE = SqlRegistry.define("gameSession.findPage.first",
+        "SELECT * FROM game_sessions ORDER BY start_time DESC, id DESC LIMIT ?");
+    private static final NamedSql FIND_PAGE_AFTER = SqlRegistry.define("gameSession.findPage.after",
+        "SELECT * FROM game_sessions WHERE start_time <= ? AND (start_time < ? OR id < ?) ORDER BY start_time DESC, id DESC LIMIT ?");
+    private static final NamedSql TOTAL_REVENUE = SqlRegistry.define("gameSession.totalRevenue",
+        "SELECT (SELECT COALESCE(SUM(revenue), 0) FROM daily_room_revenue WHERE " + RevenueWindow.ROLLUP_CONDITION + ") + " +
+        "(SELECT COALESCE(SUM(revenue), 0) FROM game_sessions WHERE " + RevenueWindow.RAW_CONDITION + ") AS total");
+    private static final NamedSql REVENUE_BY_ROOM = SqlRegistry.define("gameSession.revenueByRoom",
+        "SELECT room_id, SUM(revenue) AS total FROM (" +
+        "SELECT room_id, revenue FROM daily_room_revenue WHERE " + RevenueWindow.ROLLUP_CONDITION + " " +
+        "UNION ALL " +
+        "SELECT room_id, revenue FROM game_sessions WHERE " + RevenueWindow.RAW_CONDITION +
+        ") r GROUP BY room_id");
+    private static final NamedSql CLEAR_ROLLUP = SqlRegistry.define("gameSession.clearRollup",
+        "DELETE FROM daily_room_revenue");
+    private static final NamedSql REBUILD_ROLLUP = SqlRegistry.define("gameSession.rebuildRollup",
+        "INSERT INTO daily_room_revenue (revenue_date, room_id, revenue, sessions) " +
+        "SELECT CAST(start_time AS DATE), room_id, COALESCE(SUM(revenue), 0), COUNT(*) " +
+        "FROM game_sessions GROUP BY CAST(start_time AS DATE), room_id");
+    private static final NamedSql SAVE = SqlRegistry.define("gameSession.save",
+        "INSERT INTO game_sessions (booking_id, room_id, start_time, end_time, completed, time_spent, hints_used, rating, review, revenue) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+    private static final NamedSql UPDATE = SqlRegistry.define("gameSession.update",
+        "UPDATE game_sessions SET booking_id = ?, room_id = ?, start_time = ?, end_time = ?, completed = ?, time_spent = ?, hints_used = ?, rating = ?, review = ?, revenue = ? WHERE id = ?");
+    private static final NamedSql DELETE = SqlRegistry.define("gameSession.delete",
+        "DELETE FROM game_sessions WHERE id = ?");
+    private static final NamedSql LOCK_ROLLUP_ROWS_BY_ID = SqlRegistry.define("gameSession.lockRollupRows.byId",
+        "SELECT booking_id, room_id, start_time, revenue, rating, completed, time_spent, hints_used FROM game_sessions WHERE id = ? FOR UPDATE");
+    private static final NamedSql LOCK_ROLLUP_ROWS_BY_BOOKING = SqlRegistry.define("gameSession.lockRollupRows.byBooking",
+        "SELECT booking_id, room_id, start_time, revenue, rating, completed, time_spent, hints_used FROM game_sessions WHERE booking_id = ? FOR UPDATE");
+    private static final NamedSql APPLY_ROLLUP_DELTA = SqlRegistry.define("gameSession.applyRollupDelta",
+        "INSERT INTO daily_room_revenue (revenue_date, room_id, revenue, sessions) VALUES (?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE revenue = revenue + VALUES(revenue), sessions = sessions + VALUES(sessions)");
+    
     private final RoomDAO roomDAO = new RoomDAO();
     private final BookingDAO bookingDAO = new BookingDAO();
+    private final PlayerDAO playerDAO = new PlayerDAO();
     
 
     public GameSession findById(int id) {
-        String sql = "SELECT * FROM game_sessions WHERE id = ?";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID.sql())) {
             
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
             
-            if (rs.next()) {
-                return extractGameSessionFromResultSet(rs);
+            List<GameSession> sessions = readSessions(conn, rs);
+            if (!sessions.isEmpty()) {
+                return sessions.get(0);
             }
         } catch (SQLException e) {
             System.err.println("Error finding game session: " + e.getMessage());
@@ -42,15 +88,12 @@ public class GameSessionDAO {
 
     public List<GameSession> findAll() {
         List<GameSession> sessions = new ArrayList<>();
-        String sql = "SELECT * FROM game_sessions ORDER BY start_time DESC";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(FIND_ALL.sql());
+             ResultSet rs = stmt.executeQuery()) {
             
-            while (rs.next()) {
-                sessions.add(extractGameSessionFromResultSet(rs));
-            }
+            sessions.addAll(readSessions(conn, rs));
         } catch (SQLException e) {
             System.err.println("Error finding all game sessions: " + e.getMessage());
         }
@@ -61,17 +104,14 @@ public class GameSessionDAO {
 
     public List<GameSession> findByRoom(int roomId) {
         List<GameSession> sessions = new ArrayList<>();
-        String sql = "SELECT * FROM game_sessions WHERE room_id = ? ORDER BY start_time DESC";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_ROOM.sql())) {
             
             stmt.setInt(1, roomId);
             ResultSet rs = stmt.executeQuery();
             
-            while (rs.next()) {
-                sessions.add(extractGameSessionFromResultSet(rs));
-            }
+            sessions.addAll(readSessions(conn, rs));
         } catch (SQLException e) {
             System.err.println("Error finding game sessions by room: " + e.getMessage());
         }
@@ -81,18 +121,15 @@ public class GameSessionDAO {
 
     public List<GameSession> findByDateRange(LocalDateTime start, LocalDateTime end) {
         List<GameSession> sessions = new ArrayList<>();
-        String sql = "SELECT * FROM game_sessions WHERE start_time BETWEEN ? AND ? ORDER BY start_time";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_DATE_RANGE.sql())) {
             
             stmt.setTimestamp(1, Timestamp.valueOf(start));
             stmt.setTimestamp(2, Timestamp.valueOf(end));
             ResultSet rs = stmt.executeQuery();
             
-            while (rs.next()) {
-                sessions.add(extractGameSessionFromResultSet(rs));
-            }
+            sessions.addAll(readSessions(conn, rs));
         } catch (SQLException e) {
             System.err.println("Error finding game sessions by date range: " + e.getMessage());
         }
@@ -101,14 +138,48 @@ public class GameSessionDAO {
     }
     
 
-    public double getTotalRevenue(LocalDateTime start, LocalDateTime end) {
-        String sql = "SELECT SUM(revenue) as total FROM game_sessions WHERE start_time BETWEEN ? AND ?";
+    // Keyset pagination on (start_time, id) descending.
+    public Page<GameSession> findPage(String cursor, int pageSize) {
+        List<GameSession> sessions = new ArrayList<>();
+        NamedSql sql = cursor == null ? FIND_FIRST_PAGE : FIND_PAGE_AFTER;
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql.sql())) {
             
-            stmt.setTimestamp(1, Timestamp.valueOf(start));
-            stmt.setTimestamp(2, Timestamp.valueOf(end));
+            int index = 1;
+            if (cursor != null) {
+                String[] keys = Page.decodeCursor(cursor, 2);
+                Timestamp startTime = Timestamp.valueOf(LocalDateTime.parse(keys[0]));
+                stmt.setTimestamp(index++, startTime);
+                stmt.setTimestamp(index++, startTime);
+                stmt.setInt(index++, Integer.parseInt(keys[1]));
+            }
+            stmt.setInt(index, pageSize + 1);
+            ResultSet rs = stmt.executeQuery();
+            
+            sessions.addAll(readSessions(conn, rs));
+        } catch (SQLException e) {
+            System.err.println("Error finding game session page: " + e.getMessage());
+        }
+        
+        String nextCursor = null;
+        if (sessions.size() > pageSize) {
+            sessions.remove(pageSize);
+            GameSession last = sessions.get(pageSize - 1);
+            nextCursor = Page.encodeCursor(last.getStartTime().toString(), String.valueOf(last.getId()));
+        }
+        
+        return new Page<>(sessions, nextCursor);
+    }
+    
+
+    // Whole days come from the daily_room_revenue rollup, partial edge days from game_sessions.
+    public double getTotalRevenue(LocalDateTime start, LocalDateTime end) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(TOTAL_REVENUE.sql())) {
+            
+            RevenueWindow window = new RevenueWindow(start, end);
+            window.bindRaw(stmt, window.bindRollup(stmt, 1));
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
@@ -124,21 +195,25 @@ public class GameSessionDAO {
 
     public Map<Room, Double> getRevenueByRoom(LocalDateTime start, LocalDateTime end) {
         Map<Room, Double> revenueMap = new HashMap<>();
-        String sql = "SELECT room_id, SUM(revenue) as total FROM game_sessions WHERE start_time BETWEEN ? AND ? GROUP BY room_id";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(REVENUE_BY_ROOM.sql())) {
             
-            stmt.setTimestamp(1, Timestamp.valueOf(start));
-            stmt.setTimestamp(2, Timestamp.valueOf(end));
+            RevenueWindow window = new RevenueWindow(start, end);
+            window.bindRaw(stmt, window.bindRollup(stmt, 1));
             ResultSet rs = stmt.executeQuery();
             
+            Map<Integer, Double> revenueByRoomId = new HashMap<>();
             while (rs.next()) {
-                int roomId = rs.getInt("room_id");
-                double revenue = rs.getDouble("total");
-                Room room = roomDAO.findById(roomId);
+                revenueByRoomId.put(rs.getInt("room_id"), rs.getDouble("total"));
+            }
+            
+            Map<Integer, Room> rooms = new HashMap<>();
+            roomDAO.loadInto(conn, revenueByRoomId.keySet(), rooms);
+            for (Map.Entry<Integer, Double> entry : revenueByRoomId.entrySet()) {
+                Room room = rooms.get(entry.getKey());
                 if (room != null) {
-                    revenueMap.put(room, revenue);
+                    revenueMap.put(room, entry.getValue());
                 }
             }
         } catch (SQLException e) {
@@ -149,120 +224,327 @@ public class GameSessionDAO {
     }
     
 
-    public void save(GameSession session) {
-        String sql = "INSERT INTO game_sessions (booking_id, room_id, start_time, end_time, completed, time_spent, hints_used, rating, review, revenue) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+    // Recomputes daily_room_revenue from game_sessions, e.g. after bulk imports that bypassed the DAO.
+    public void rebuildRevenueRollup() {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
             
-            if (session.getBooking() != null) {
-                stmt.setInt(1, session.getBooking().getId());
-            } else {
-                stmt.setNull(1, Types.INTEGER);
+            try (PreparedStatement delete = conn.prepareStatement(CLEAR_ROLLUP.sql());
+                 PreparedStatement insert = conn.prepareStatement(REBUILD_ROLLUP.sql())) {
+                delete.executeUpdate();
+                insert.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
-            stmt.setInt(2, session.getRoom().getId());
-            stmt.setTimestamp(3, Timestamp.valueOf(session.getStartTime()));
+        } catch (SQLException e) {
+            System.err.println("Error rebuilding revenue rollup: " + e.getMessage());
+        }
+    }
+    
+
+    public void save(GameSession session) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
             
-            if (session.getEndTime() != null) {
-                stmt.setTimestamp(4, Timestamp.valueOf(session.getEndTime()));
-            } else {
-                stmt.setNull(4, Types.TIMESTAMP);
+            try (PreparedStatement stmt = conn.prepareStatement(SAVE.sql(), Statement.RETURN_GENERATED_KEYS)) {
+                bindSession(stmt, session);
+                stmt.executeUpdate();
+                
+                ResultSet keys = stmt.getGeneratedKeys();
+                int sessionId = keys.next() ? keys.getInt(1) : 0;
+                
+                applyRollupDelta(conn, session.getRoom().getId(), session.getStartTime(), session.getRevenue(), 1);
+                if (session.getRating() > 0) {
+                    RoomDAO.applyRatingDelta(conn, session.getRoom().getId(), session.getRating(), 1);
+                }
+                conn.commit();
+                session.setId(sessionId);
+                if (session.getRating() > 0) {
+                    RoomDAO.ratingsChanged(Collections.singleton(session.getRoom().getId()));
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
+        } catch (SQLException e) {
+            System.err.println("Error saving game session: " + e.getMessage());
+            return;
+        }
+        
+        UnitOfWork.afterCommit(() -> playerDAO.recordSession(session));
+    }
+    
+
+    // Records a played session together with its booking in one transaction: a new booking
+    // (a walk-in) is saved first, an existing one is marked completed.
+    public void checkIn(GameSession session) {
+        try {
+            UnitOfWork.run(() -> {
+                Booking booking = session.getBooking();
+                if (booking != null && booking.getId() == 0) {
+                    booking.setStatus(BookingStatus.COMPLETED);
+                    bookingDAO.save(booking);
+                } else if (booking != null) {
+                    bookingDAO.updateStatus(booking.getId(), BookingStatus.COMPLETED);
+                    booking.setStatus(BookingStatus.COMPLETED);
+                }
+                save(session);
+            });
+        } catch (SQLException e) {
+            System.err.println("Error checking in game session: " + e.getMessage());
+        }
+    }
+
+    public void update(GameSession session) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
             
-            stmt.setBoolean(5, session.isCompleted());
-            stmt.setInt(6, session.getTimeSpent());
-            stmt.setInt(7, session.getHintsUsed());
-            
-            if (session.getRating() > 0) {
-                stmt.setInt(8, session.getRating());
-            } else {
-                stmt.setNull(8, Types.INTEGER);
+            try (PreparedStatement stmt = conn.prepareStatement(UPDATE.sql())) {
+                // A walk-in session's players are not stored, so the caller's list stands in for the old ones
+                RemovedSessions removed = subtractFromAggregates(conn, "id", session.getId(), playerIds(session));
+                
+                bindSession(stmt, session);
+                stmt.setInt(11, session.getId());
+                
+                boolean updated = stmt.executeUpdate() > 0;
+                // Player statistics are only redone when what they count changed: every reversal
+                // and re-record rounds average_time again
+                boolean statsChanged = updated && !removed.playedAs(PlayerDAO.sessionPlayerIds(session),
+                    session.isCompleted(), session.getTimeSpent(), session.getHintsUsed());
+                if (updated && !statsChanged) {
+                    removed.keepPlayerStatistics();
+                }
+                if (updated) {
+                    applyRollupDelta(conn, session.getRoom().getId(), session.getStartTime(), session.getRevenue(), 1);
+                    if (session.getRating() > 0) {
+                        RoomDAO.applyRatingDelta(conn, session.getRoom().getId(), session.getRating(), 1);
+                    }
+                }
+                conn.commit();
+                removed.committed();
+                if (updated) {
+                    if (session.getRating() > 0) {
+                        RoomDAO.ratingsChanged(Collections.singleton(session.getRoom().getId()));
+                    }
+                    if (statsChanged) {
+                        UnitOfWork.afterCommit(() -> playerDAO.recordSession(session));
+                    }
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
+        } catch (SQLException e) {
+            System.err.println("Error updating game session: " + e.getMessage());
+        }
+    }
+    
+
+    public void delete(int id) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
             
-            stmt.setString(9, session.getReview());
-            stmt.setDouble(10, session.getRevenue());
-            
-            stmt.executeUpdate();
-            
-            ResultSet keys = stmt.getGeneratedKeys();
-            if (keys.next()) {
-                session.setId(keys.getInt(1));
+            try (PreparedStatement stmt = conn.prepareStatement(DELETE.sql())) {
+                RemovedSessions removed = subtractFromAggregates(conn, "id", id, Collections.emptySet());
+                
+                stmt.setInt(1, id);
+                stmt.executeUpdate();
+                conn.commit();
+                removed.committed();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
         } catch (SQLException e) {
-            System.err.println("Error saving game session: " + e.getMessage());
+            System.err.println("Error deleting game session: " + e.getMessage());
         }
     }
+    
 
-    public void update(GameSession session) {
-        String sql = "UPDATE game_sessions SET booking_id = ?, room_id = ?, start_time = ?, end_time = ?, completed = ?, time_spent = ?, hints_used = ?, rating = ?, review = ?, revenue = ? WHERE id = ?";
+    // Removes the revenue rollup and room rating contributions of the sessions matching column = id
+    // (locked until commit) and collects what the caller reverses in memory once it commits.
+    // Sessions without a booking are credited to walkInPlayerIds.
+    static RemovedSessions subtractFromAggregates(Connection conn, String column, int id,
+                                                  Set<Integer> walkInPlayerIds) throws SQLException {
+        NamedSql sql;
+        if ("id".equals(column)) {
+            sql = LOCK_ROLLUP_ROWS_BY_ID;
+        } else if ("booking_id".equals(column)) {
+            sql = LOCK_ROLLUP_ROWS_BY_BOOKING;
+        } else {
+            throw new IllegalArgumentException("Unsupported rollup column: " + column);
+        }
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql.sql())) {
+            stmt.setInt(1, id);
+            ResultSet rs = stmt.executeQuery();
             
-            if (session.getBooking() != null) {
-                stmt.setInt(1, session.getBooking().getId());
-            } else {
-                stmt.setNull(1, Types.INTEGER);
+            RemovedSessions removed = new RemovedSessions();
+            while (rs.next()) {
+                int roomId = rs.getInt("room_id");
+                applyRollupDelta(conn, roomId, rs.getTimestamp("start_time").toLocalDateTime(),
+                    rs.getDouble("revenue"), -1);
+                
+                int rating = rs.getInt("rating");
+                if (!rs.wasNull()) {
+                    RoomDAO.applyRatingDelta(conn, roomId, -rating, -1);
+                    removed.ratedRooms.add(roomId);
+                }
+                
+                int bookingId = rs.getInt("booking_id");
+                Set<Integer> players = rs.wasNull() ? walkInPlayerIds : BookingDAO.loadBookingPlayerIds(conn, bookingId);
+                removed.played.add(new PlayedSession(players, rs.getBoolean("completed"),
+                    rs.getInt("time_spent"), rs.getInt("hints_used")));
             }
-            stmt.setInt(2, session.getRoom().getId());
-            stmt.setTimestamp(3, Timestamp.valueOf(session.getStartTime()));
-            
-            if (session.getEndTime() != null) {
-                stmt.setTimestamp(4, Timestamp.valueOf(session.getEndTime()));
-            } else {
-                stmt.setNull(4, Types.TIMESTAMP);
+            return removed;
+        }
+    }
+    
+
+    private static Set<Integer> playerIds(GameSession session) {
+        Set<Integer> ids = new HashSet<>();
+        if (session.getPlayers() != null) {
+            for (Player player : session.getPlayers()) {
+                ids.add(player.getId());
             }
-            
-            stmt.setBoolean(5, session.isCompleted());
-            stmt.setInt(6, session.getTimeSpent());
-            stmt.setInt(7, session.getHintsUsed());
-            
-            if (session.getRating() > 0) {
-                stmt.setInt(8, session.getRating());
-            } else {
-                stmt.setNull(8, Types.INTEGER);
+        }
+        return ids;
+    }
+    
+
+    // Sessions taken out by subtractFromAggregates: their rooms' cached ratings and their
+    // players' statistics are updated once the transaction has committed.
+    static final class RemovedSessions {
+        private final Set<Integer> ratedRooms = new HashSet<>();
+        private final List<PlayedSession> played = new ArrayList<>();
+        
+        // True when exactly one session was removed and it counted the same way for the same players.
+        boolean playedAs(Set<Integer> playerIds, boolean completed, int timeSpent, int hintsUsed) {
+            if (played.size() != 1) {
+                return false;
             }
-            
-            stmt.setString(9, session.getReview());
-            stmt.setDouble(10, session.getRevenue());
-            stmt.setInt(11, session.getId());
-            
+            PlayedSession session = played.get(0);
+            return session.playerIds.equals(playerIds) && session.completed == completed
+                && session.timeSpent == timeSpent && session.hintsUsed == hintsUsed;
+        }
+        
+        void keepPlayerStatistics() {
+            played.clear();
+        }
+        
+        void committed() {
+            RoomDAO.ratingsChanged(ratedRooms);
+            UnitOfWork.afterCommit(() -> {
+                for (PlayedSession session : played) {
+                    PlayerDAO.reverseSession(session.playerIds, session.completed, session.timeSpent, session.hintsUsed);
+                }
+            });
+        }
+    }
+    
+    private static final class PlayedSession {
+        private final Set<Integer> playerIds;
+        private final boolean completed;
+        private final int timeSpent;
+        private final int hintsUsed;
+        
+        private PlayedSession(Set<Integer> playerIds, boolean completed, int timeSpent, int hintsUsed) {
+            this.playerIds = playerIds;
+            this.completed = completed;
+            this.timeSpent = timeSpent;
+            this.hintsUsed = hintsUsed;
+        }
+    }
+    
+
+    private static void applyRollupDelta(Connection conn, int roomId, LocalDateTime startTime, double revenue, int sign) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(APPLY_ROLLUP_DELTA.sql())) {
+            stmt.setDate(1, Date.valueOf(startTime.toLocalDate()));
+            stmt.setInt(2, roomId);
+            stmt.setDouble(3, sign * revenue);
+            stmt.setInt(4, sign);
             stmt.executeUpdate();
-        } catch (SQLException e) {
-            System.err.println("Error updating game session: " + e.getMessage());
         }
     }
     
 
-    public void delete(int id) {
-        String sql = "DELETE FROM game_sessions WHERE id = ?";
+    private void bindSession(PreparedStatement stmt, GameSession session) throws SQLException {
+        if (session.getBooking() != null) {
+            stmt.setInt(1, session.getBooking().getId());
+        } else {
+            stmt.setNull(1, Types.INTEGER);
+        }
+        stmt.setInt(2, session.getRoom().getId());
+        stmt.setTimestamp(3, Timestamp.valueOf(session.getStartTime()));
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            System.err.println("Error deleting game session: " + e.getMessage());
+        if (session.getEndTime() != null) {
+            stmt.setTimestamp(4, Timestamp.valueOf(session.getEndTime()));
+        } else {
+            stmt.setNull(4, Types.TIMESTAMP);
+        }
+        
+        stmt.setBoolean(5, session.isCompleted());
+        stmt.setInt(6, session.getTimeSpent());
+        stmt.setInt(7, session.getHintsUsed());
+        
+        if (session.getRating() > 0) {
+            stmt.setInt(8, session.getRating());
+        } else {
+            stmt.setNull(8, Types.INTEGER);
         }
+        
+        stmt.setString(9, session.getReview());
+        stmt.setDouble(10, session.getRevenue());
     }
 
-    private GameSession extractGameSessionFromResultSet(ResultSet rs) throws SQLException {
-        GameSession session = new GameSession();
-        session.setId(rs.getInt("id"));
+    // Collects booking and room keys for the whole page and resolves them in bulk;
+    // sessions, their bookings and the bookings' players share Room/Player instances.
+    private List<GameSession> readSessions(Connection conn, ResultSet rs) throws SQLException {
+        List<GameSession> sessions = new ArrayList<>();
+        List<Integer> bookingIds = new ArrayList<>();
+        List<Integer> roomIds = new ArrayList<>();
+        
+        while (rs.next()) {
+            sessions.add(extractGameSessionFromResultSet(rs));
+            bookingIds.add(rs.getInt("booking_id"));
+            roomIds.add(rs.getInt("room_id"));
+        }
+        
+        if (sessions.isEmpty()) {
+            return sessions;
+        }
+        
+        LoadContext context = new LoadContext();
+        roomDAO.loadInto(conn, roomIds, context.rooms);
+        
+        Set<Integer> distinctBookingIds = new HashSet<>();
+        for (Integer bookingId : bookingIds) {
+            if (bookingId > 0) {
+                distinctBookingIds.add(bookingId);
+            }
+        }
+        Map<Integer, Booking> bookings = bookingDAO.findByIds(conn, distinctBookingIds, context);
         
-        int bookingId = rs.getInt("booking_id");
-        if (bookingId > 0) {
-            Booking booking = bookingDAO.findById(bookingId);
-            session.setBooking(booking);
+        for (int i = 0; i < sessions.size(); i++) {
+            GameSession session = sessions.get(i);
+            session.setRoom(context.rooms.get(roomIds.get(i)));
+            
+            Booking booking = bookings.get(bookingIds.get(i));
             if (booking != null) {
+                session.setBooking(booking);
                 session.setPlayers(booking.getPlayers());
             }
         }
         
-        int roomId = rs.getInt("room_id");
-        Room room = roomDAO.findById(roomId);
-        session.setRoom(room);
+        return sessions;
+    }
+    
+
+    private GameSession extractGameSessionFromResultSet(ResultSet rs) throws SQLException {
+        GameSession session = new GameSession();
+        session.setId(rs.getInt("id"));
         
         Timestamp startTime = rs.getTimestamp("start_time");
         if (startTime != null) {
@@ -0,0 +1,65 @@
+package com.escaperoom.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+
+final class InClause {
+
+    static final int MAX_PARAMETERS = 500;
+
+    private InClause() {}
+
+
+    static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+
+    // Lists are padded to the next power of two by repeating the last id, so a
+    // lookup produces one of a handful of statement texts the driver can cache.
+    static int paddedSize(int count) {
+        int size = Integer.highestOneBit(Math.max(1, count));
+        if (size < count) {
+            size <<= 1;
+        }
+        return Math.min(size, MAX_PARAMETERS);
+    }
+
+
+    // Binds ids padded to paddedSize(ids.size()); returns the next parameter index.
+    static int bind(PreparedStatement stmt, int index, List<Integer> ids) throws SQLException {
+        int size = paddedSize(ids.size());
+        for (int i = 0; i < size; i++) {
+            stmt.setInt(index++, ids.get(Math.min(i, ids.size() - 1)));
+        }
+        return index;
+    }
+
+
+    static List<List<Integer>> partition(Collection<Integer> ids) {
+        List<List<Integer>> chunks = new ArrayList<>();
+        List<Integer> current = new ArrayList<>(Math.min(ids.size(), MAX_PARAMETERS));
+        for (Integer id : ids) {
+            current.add(id);
+            if (current.size() == MAX_PARAMETERS) {
+                chunks.add(current);
+                current = new ArrayList<>(MAX_PARAMETERS);
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+}
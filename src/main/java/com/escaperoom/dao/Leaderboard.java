@@ -0,0 +1,144 @@
+package com.escaperoom.dao;
+
+import com.escaperoom.models.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Players ranked by win rate, then wins, then id, kept as a sorted array so top-N reads
+ * are a prefix copy and rank lookups a binary search. Only players with at least one game
+ * are ranked. Players are copied on insert and on the way out, so a caller editing a
+ * result cannot disturb the ordering.
+ *
+ * As with PlayerSearchIndex, writes between beginBuild and rebuild are queued and
+ * replayed over the snapshot.
+ */
+public class Leaderboard {
+
+    // Win rates are compared by cross-multiplication to avoid floating point ties.
+    private static final Comparator<Entry> RANKING = (a, b) -> {
+        int byRate = Long.compare((long) b.gamesWon * a.gamesPlayed, (long) a.gamesWon * b.gamesPlayed);
+        if (byRate != 0) {
+            return byRate;
+        }
+        int byWins = Integer.compare(b.gamesWon, a.gamesWon);
+        return byWins != 0 ? byWins : Integer.compare(a.playerId, b.playerId);
+    };
+
+    private final List<Entry> ranked = new ArrayList<>();
+    private final Map<Integer, Entry> byPlayer = new HashMap<>();
+    // Writes seen while building, by player id; a null value is a removal.
+    private final Map<Integer, Player> pending = new LinkedHashMap<>();
+    private volatile boolean building;
+    private volatile boolean built;
+
+    public boolean isBuilt() {
+        return built;
+    }
+
+    public boolean acceptsUpdates() {
+        return built || building;
+    }
+
+    // Call before reading the snapshot that is passed to rebuild.
+    public synchronized void beginBuild() {
+        pending.clear();
+        building = true;
+    }
+
+    public synchronized void rebuild(Collection<Player> players) {
+        ranked.clear();
+        byPlayer.clear();
+        for (Player player : players) {
+            if (player.getTotalGamesPlayed() > 0) {
+                Entry entry = new Entry(player);
+                ranked.add(entry);
+                byPlayer.put(entry.playerId, entry);
+            }
+        }
+        ranked.sort(RANKING);
+        for (Map.Entry<Integer, Player> write : pending.entrySet()) {
+            removeInternal(write.getKey());
+            if (write.getValue() != null) {
+                insert(write.getValue());
+            }
+        }
+        pending.clear();
+        building = false;
+        built = true;
+    }
+
+    public synchronized void put(Player player) {
+        if (built) {
+            removeInternal(player.getId());
+            insert(player);
+        } else if (building) {
+            pending.remove(player.getId());
+            pending.put(player.getId(), player);
+        }
+    }
+
+    public synchronized void remove(int playerId) {
+        if (built) {
+            removeInternal(playerId);
+        } else if (building) {
+            pending.remove(playerId);
+            pending.put(playerId, null);
+        }
+    }
+
+    public synchronized List<Player> top(int limit) {
+        List<Player> players = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < limit && i < ranked.size(); i++) {
+            players.add(ranked.get(i).player.copy());
+        }
+        return players;
+    }
+
+    // 1-based rank, or -1 when the player has not played any games.
+    public synchronized int rankOf(int playerId) {
+        Entry entry = byPlayer.get(playerId);
+        return entry == null ? -1 : Collections.binarySearch(ranked, entry, RANKING) + 1;
+    }
+
+    public synchronized int size() {
+        return ranked.size();
+    }
+
+    private void insert(Player player) {
+        if (player.getTotalGamesPlayed() > 0) {
+            Entry entry = new Entry(player);
+            int pos = Collections.binarySearch(ranked, entry, RANKING);
+            ranked.add(-pos - 1, entry);
+            byPlayer.put(entry.playerId, entry);
+        }
+    }
+
+    private void removeInternal(int playerId) {
+        Entry entry = byPlayer.remove(playerId);
+        if (entry != null) {
+            ranked.remove(Collections.binarySearch(ranked, entry, RANKING));
+        }
+    }
+
+    private static final class Entry {
+        private final Player player;
+        private final int playerId;
+        private final int gamesWon;
+        private final int gamesPlayed;
+
+        private Entry(Player player) {
+            this.player = player.copy();
+            this.playerId = player.getId();
+            this.gamesWon = player.getGamesWon();
+            this.gamesPlayed = player.getTotalGamesPlayed();
+        }
+    }
+}
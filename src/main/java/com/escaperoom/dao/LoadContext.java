@@ -0,0 +1,17 @@
+package com.escaperoom.dao;
+
+import com.escaperoom.models.Player;
+import com.escaperoom.models.Room;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Entities already materialized while loading one result page, so bulk loaders
+ * can share Room and Player instances instead of fetching them again.
+ */
+final class LoadContext {
+
+    final Map<Integer, Room> rooms = new HashMap<>();
+    final Map<Integer, Player> players = new HashMap<>();
+}
@@ -0,0 +1,47 @@
+package com.escaperoom.dao;
+
+/**
+ * A DAO statement registered once under a stable name. Statements with an IN list
+ * carry an {in} marker that is expanded to the required number of placeholders.
+ * Statements that read a whole table on purpose are flagged as full scans, so
+ * QueryPlanCheck does not warn about them.
+ */
+public final class NamedSql {
+
+    static final String IN_LIST = "{in}";
+
+    private final String name;
+    private final String sql;
+    private final boolean fullScan;
+
+    NamedSql(String name, String sql, boolean fullScan) {
+        this.name = name;
+        this.sql = sql;
+        this.fullScan = fullScan;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String sql() {
+        return sql;
+    }
+
+    public boolean isFullScan() {
+        return fullScan;
+    }
+
+    public boolean hasInList() {
+        return sql.contains(IN_LIST);
+    }
+
+    public String expand(int placeholders) {
+        return sql.replace(IN_LIST, InClause.placeholders(placeholders));
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,64 @@
+package com.escaperoom.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated query. The continuation token is opaque to callers
+ * and is passed back to the same finder to fetch the next page.
+ */
+public class Page<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+
+    static String encodeCursor(String... keys) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        StringBuilder sb = new StringBuilder();
+        for (String key : keys) {
+            if (sb.length() > 0) {
+                sb.append('.');
+            }
+            sb.append(encoder.encodeToString(key.getBytes(StandardCharsets.UTF_8)));
+        }
+        return sb.toString();
+    }
+
+
+    static String[] decodeCursor(String cursor, int expectedKeys) {
+        String[] parts = cursor.split("\\.", -1);
+        if (parts.length != expectedKeys) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+        }
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        String[] keys = new String[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                keys[i] = new String(decoder.decode(parts[i]), StandardCharsets.UTF_8);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+        return keys;
+    }
+}
@@ -1,21 +1,63 @@
 package com.escaperoom.dao;
 
 import com.escaperoom.database.DatabaseConnection;
+import com.escaperoom.database.UnitOfWork;
+import com.escaperoom.models.GameSession;
 import com.escaperoom.models.Player;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 
 public class PlayerDAO {
+    private static final NamedSql FIND_BY_ID = SqlRegistry.define("player.findById",
+        "SELECT * FROM players WHERE id = ?");
+    private static final NamedSql FIND_BY_EMAIL = SqlRegistry.define("player.findByEmail",
+        "SELECT * FROM players WHERE email = ?");
+    private static final NamedSql FIND_ALL = SqlRegistry.defineScan("player.findAll",
+        "SELECT * FROM players ORDER BY first_name, last_name");
+    private static final NamedSql FIND_FIRST_PAGE = SqlRegistry.define("player.findPage.first",
+        "SELECT * FROM players ORDER BY first_name, last_name, id LIMIT ?");
+    private static final NamedSql FIND_PAGE_AFTER = SqlRegistry.define("player.findPage.after",
+        "SELECT * FROM players WHERE first_name > ? OR (first_name = ? AND (last_name > ? OR (last_name = ? AND id > ?))) "
+            + "ORDER BY first_name, last_name, id LIMIT ?");
+    private static final NamedSql SEARCH_BY_NAME = SqlRegistry.defineScan("player.searchByName",
+        "SELECT * FROM players WHERE CONCAT(first_name, ' ', last_name) LIKE ? ORDER BY first_name, last_name");
+    private static final NamedSql FIND_RANKED = SqlRegistry.defineScan("player.findRanked",
+        "SELECT * FROM players WHERE total_games_played > 0");
+    private static final NamedSql SAVE = SqlRegistry.define("player.save",
+        "INSERT INTO players (first_name, last_name, email, phone, total_games_played, games_won, games_lost, average_time, total_hints_used) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+    private static final NamedSql FIND_BY_IDS = SqlRegistry.define("player.findByIds",
+        "SELECT * FROM players WHERE id IN ({in})");
+    private static final NamedSql UPDATE = SqlRegistry.define("player.update",
+        "UPDATE players SET first_name = ?, last_name = ?, email = ?, phone = ? WHERE id = ?");
+    private static final NamedSql UPDATE_STATISTICS = SqlRegistry.define("player.updateStatistics",
+        "UPDATE players SET total_games_played = ?, games_won = ?, games_lost = ?, average_time = ?, total_hints_used = ? WHERE id = ?");
+    private static final NamedSql DELETE = SqlRegistry.define("player.delete",
+        "DELETE FROM players WHERE id = ?");
+    
+    private static final PlayerSearchIndex SEARCH_INDEX = new PlayerSearchIndex();
+    private static final Leaderboard LEADERBOARD = new Leaderboard();
+    // Separate from the leaderboard's own monitor so writes queue instead of waiting out a build.
+    private static final Object LEADERBOARD_BUILD = new Object();
+    private static final PlayerStatsAggregator STATS = new PlayerStatsAggregator(
+        Paths.get(System.getProperty("escaperoom.stats.journalDir",
+            Paths.get(System.getProperty("user.home"), ".escaperoom", "stats-journal").toString())),
+        Long.getLong("escaperoom.stats.flushIntervalMs", 30_000L),
+        Integer.getInteger("escaperoom.stats.flushThreshold", 100),
+        PlayerDAO::refreshCached);
     
 
     public Player findById(int id) {
-        String sql = "SELECT * FROM players WHERE id = ?";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID.sql())) {
             
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
@@ -32,10 +74,8 @@ public class PlayerDAO {
     
 
     public Player findByEmail(String email) {
-        String sql = "SELECT * FROM players WHERE email = ?";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_EMAIL.sql())) {
             
             stmt.setString(1, email);
             ResultSet rs = stmt.executeQuery();
@@ -52,11 +92,10 @@ public class PlayerDAO {
 
     public List<Player> findAll() {
         List<Player> players = new ArrayList<>();
-        String sql = "SELECT * FROM players ORDER BY first_name, last_name";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(FIND_ALL.sql());
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 players.add(extractPlayerFromResultSet(rs));
@@ -68,52 +107,114 @@ public class PlayerDAO {
         return players;
     }
 
-    public List<Player> searchByName(String name) {
+    // Keyset pagination on (first_name, last_name, id) ascending.
+    public Page<Player> findPage(String cursor, int pageSize) {
         List<Player> players = new ArrayList<>();
-        String sql = "SELECT * FROM players WHERE CONCAT(first_name, ' ', last_name) LIKE ? ORDER BY first_name, last_name";
+        NamedSql sql = cursor == null ? FIND_FIRST_PAGE : FIND_PAGE_AFTER;
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql.sql())) {
             
-            stmt.setString(1, "%" + name + "%");
+            int index = 1;
+            if (cursor != null) {
+                String[] keys = Page.decodeCursor(cursor, 3);
+                stmt.setString(index++, keys[0]);
+                stmt.setString(index++, keys[0]);
+                stmt.setString(index++, keys[1]);
+                stmt.setString(index++, keys[1]);
+                stmt.setInt(index++, Integer.parseInt(keys[2]));
+            }
+            stmt.setInt(index, pageSize + 1);
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
                 players.add(extractPlayerFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Error searching players by name: " + e.getMessage());
+            System.err.println("Error finding player page: " + e.getMessage());
         }
         
-        return players;
+        String nextCursor = null;
+        if (players.size() > pageSize) {
+            players.remove(pageSize);
+            Player last = players.get(pageSize - 1);
+            nextCursor = Page.encodeCursor(last.getFirstName(), last.getLastName(), String.valueOf(last.getId()));
+        }
+        
+        return new Page<>(players, nextCursor);
     }
 
-    public List<Player> getTopPlayers(int limit) {
+    public List<Player> searchByName(String name) {
         List<Player> players = new ArrayList<>();
-        String sql = "SELECT * FROM players WHERE total_games_played > 0 ORDER BY (games_won / total_games_played) DESC, games_won DESC LIMIT ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(SEARCH_BY_NAME.sql())) {
             
-            stmt.setInt(1, limit);
+            stmt.setString(1, "%" + name + "%");
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
                 players.add(extractPlayerFromResultSet(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Error getting top players: " + e.getMessage());
+            System.err.println("Error searching players by name: " + e.getMessage());
         }
         
         return players;
     }
+
+    // Substring search over full name and email, served from the in-memory index (built on first use).
+    public List<Player> search(String query) {
+        if (!SEARCH_INDEX.isBuilt()) {
+            synchronized (SEARCH_INDEX) {
+                if (!SEARCH_INDEX.isBuilt()) {
+                    SEARCH_INDEX.beginBuild();
+                    SEARCH_INDEX.rebuild(findAll());
+                }
+            }
+        }
+        return SEARCH_INDEX.search(query);
+    }
+
+    public List<Player> getTopPlayers(int limit) {
+        return leaderboard().top(limit);
+    }
+    
+
+    // 1-based leaderboard position, or -1 for players without games.
+    public int getRank(int playerId) {
+        return leaderboard().rankOf(playerId);
+    }
+    
+
+    private Leaderboard leaderboard() {
+        if (!LEADERBOARD.isBuilt()) {
+            synchronized (LEADERBOARD_BUILD) {
+                if (!LEADERBOARD.isBuilt()) {
+                    List<Player> players = new ArrayList<>();
+                    LEADERBOARD.beginBuild();
+                    
+                    try (Connection conn = DatabaseConnection.getConnection();
+                         PreparedStatement stmt = conn.prepareStatement(FIND_RANKED.sql());
+                         ResultSet rs = stmt.executeQuery()) {
+                        
+                        while (rs.next()) {
+                            players.add(extractPlayerFromResultSet(rs));
+                        }
+                        LEADERBOARD.rebuild(players);
+                    } catch (SQLException e) {
+                        System.err.println("Error loading leaderboard: " + e.getMessage());
+                    }
+                }
+            }
+        }
+        return LEADERBOARD;
+    }
     
 
     public void save(Player player) {
-        String sql = "INSERT INTO players (first_name, last_name, email, phone, total_games_played, games_won, games_lost, average_time, total_hints_used) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = conn.prepareStatement(SAVE.sql(), Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setString(1, player.getFirstName());
             stmt.setString(2, player.getLastName());
@@ -131,29 +232,25 @@ public class PlayerDAO {
             if (keys.next()) {
                 player.setId(keys.getInt(1));
             }
+            UnitOfWork.afterCommit(() -> reindex(player));
         } catch (SQLException e) {
             System.err.println("Error saving player: " + e.getMessage());
         }
     }
 
     public void update(Player player) {
-        String sql = "UPDATE players SET first_name = ?, last_name = ?, email = ?, phone = ?, total_games_played = ?, games_won = ?, games_lost = ?, average_time = ?, total_hints_used = ? WHERE id = ?";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(UPDATE.sql())) {
             
             stmt.setString(1, player.getFirstName());
             stmt.setString(2, player.getLastName());
             stmt.setString(3, player.getEmail());
             stmt.setString(4, player.getPhone());
-            stmt.setInt(5, player.getTotalGamesPlayed());
-            stmt.setInt(6, player.getGamesWon());
-            stmt.setInt(7, player.getGamesLost());
-            stmt.setDouble(8, player.getAverageTime());
-            stmt.setInt(9, player.getTotalHintsUsed());
-            stmt.setInt(10, player.getId());
+            stmt.setInt(5, player.getId());
             
             stmt.executeUpdate();
+            // Only the profile columns were written; the caller's counters may predate the last statistics flush
+            UnitOfWork.afterCommit(() -> refreshCached(Collections.singleton(player.getId())));
         } catch (SQLException e) {
             System.err.println("Error updating player: " + e.getMessage());
         }
@@ -161,25 +258,147 @@ public class PlayerDAO {
     
 
     public void delete(int id) {
-        String sql = "DELETE FROM players WHERE id = ?";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(DELETE.sql())) {
             
             stmt.setInt(1, id);
             stmt.executeUpdate();
+            UnitOfWork.afterCommit(() -> {
+                SEARCH_INDEX.remove(id);
+                LEADERBOARD.remove(id);
+            });
         } catch (SQLException e) {
             System.err.println("Error deleting player: " + e.getMessage());
         }
     }
     
 
+    // Overwrites the counters, e.g. for a manual correction; deltas that are still
+    // pending in the statistics aggregator are added on top at its next flush.
     public void updateStatistics(Player player) {
-        update(player);
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_STATISTICS.sql())) {
+            
+            stmt.setInt(1, player.getTotalGamesPlayed());
+            stmt.setInt(2, player.getGamesWon());
+            stmt.setInt(3, player.getGamesLost());
+            stmt.setDouble(4, player.getAverageTime());
+            stmt.setInt(5, player.getTotalHintsUsed());
+            stmt.setInt(6, player.getId());
+            
+            stmt.executeUpdate();
+            UnitOfWork.afterCommit(() -> refreshCached(Collections.singleton(player.getId())));
+        } catch (SQLException e) {
+            System.err.println("Error updating player statistics: " + e.getMessage());
+        }
+    }
+    
+
+    // Counts a finished session for each of its players (a completed session is a win). The
+    // counters are written behind by the statistics aggregator, see PlayerStatsAggregator.
+    public void recordSession(GameSession session) {
+        recordStatistics(sessionPlayerIds(session), session.isCompleted(), session.getTimeSpent(),
+            session.getHintsUsed(), 1);
+    }
+    
+
+    // The players a session counts for: its own list, or its booking's players for a booked session.
+    static Set<Integer> sessionPlayerIds(GameSession session) {
+        Set<Integer> playerIds = new LinkedHashSet<>();
+        List<Player> players = session.getPlayers();
+        if ((players == null || players.isEmpty()) && session.getBooking() != null) {
+            players = session.getBooking().getPlayers();
+        }
+        if (players != null) {
+            for (Player player : players) {
+                playerIds.add(player.getId());
+            }
+        }
+        return playerIds;
+    }
+    
+
+    // Takes a session that was counted by recordSession out of its players' statistics again.
+    static void reverseSession(Collection<Integer> playerIds, boolean completed, int timeSpent, int hintsUsed) {
+        recordStatistics(playerIds, completed, timeSpent, hintsUsed, -1);
+    }
+    
+    private static void recordStatistics(Collection<Integer> playerIds, boolean won, int timeSpent, int hintsUsed, int sign) {
+        if (playerIds.isEmpty()) {
+            return;
+        }
+        
+        try {
+            startStatistics();
+        } catch (IOException | SQLException e) {
+            // Held in memory and journaled once a later start succeeds
+            System.err.println("Error starting player statistics: " + e.getMessage());
+            STATS.defer(playerIds, won, timeSpent, hintsUsed, sign);
+            return;
+        }
+        try {
+            STATS.record(playerIds, won, timeSpent, hintsUsed, sign);
+        } catch (IOException e) {
+            System.err.println("Error journaling player statistics, keeping the update in memory: " + e.getMessage());
+        }
+    }
+    
+
+    // Replays statistics journaled by a previous run that did not get flushed.
+    public static void startStatistics() throws IOException, SQLException {
+        if (!STATS.isStarted()) {
+            STATS.start();
+        }
+    }
+    
+
+    public static void flushStatistics() {
+        try {
+            if (STATS.isStarted()) {
+                STATS.flush();
+            }
+        } catch (IOException | SQLException e) {
+            System.err.println("Error flushing player statistics: " + e.getMessage());
+        }
+    }
+    
+
+    public static void shutdownStatistics() {
+        STATS.shutdown();
+    }
+    
+
+    // Reloads committed player rows, e.g. after a statistics flush, into the in-memory search index and leaderboard.
+    private static void refreshCached(Collection<Integer> ids) {
+        if (!SEARCH_INDEX.acceptsUpdates() && !LEADERBOARD.acceptsUpdates()) {
+            return;
+        }
+        PlayerDAO dao = new PlayerDAO();
+        
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (List<Integer> chunk : InClause.partition(ids)) {
+                try (PreparedStatement stmt = conn.prepareStatement(FIND_BY_IDS.expand(InClause.paddedSize(chunk.size())))) {
+                    InClause.bind(stmt, 1, chunk);
+                    ResultSet rs = stmt.executeQuery();
+                    
+                    while (rs.next()) {
+                        reindex(dao.extractPlayerFromResultSet(rs));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error refreshing player statistics: " + e.getMessage());
+        }
+    }
+    
+
+    private static void reindex(Player player) {
+        SEARCH_INDEX.put(player);
+        LEADERBOARD.put(player);
     }
     
 
-    private Player extractPlayerFromResultSet(ResultSet rs) throws SQLException {
+    Player extractPlayerFromResultSet(ResultSet rs) throws SQLException {
         Player player = new Player();
         player.setId(rs.getInt("id"));
         player.setFirstName(rs.getString("first_name"));
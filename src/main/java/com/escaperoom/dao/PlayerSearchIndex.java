@@ -0,0 +1,334 @@
+package com.escaperoom.dao;
+
+import com.escaperoom.models.Player;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory search index over player full names and emails.
+ * Queries of three or more characters are substring matches resolved through trigram
+ * postings; shorter queries are prefix matches on the individual name and email words.
+ * The index keeps its own copies of the players and hands out copies, so a caller that
+ * edits a result cannot leave a document out of step with its indexed text.
+ *
+ * Writes are ignored until a build starts. Between beginBuild and rebuild they are queued
+ * and replayed over the snapshot, so a change committed after the snapshot was read is
+ * not lost.
+ */
+public class PlayerSearchIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Comparator<Document> BY_NAME = Comparator
+        .comparing((Document d) -> d.sortKey)
+        .thenComparingInt(d -> d.player.getId());
+
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private final Map<Long, Postings> trigrams = new HashMap<>();
+    private final NavigableMap<String, Postings> tokens = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Writes seen while building, by player id; a null value is a removal.
+    private final Map<Integer, Player> pending = new LinkedHashMap<>();
+    private volatile boolean building;
+    private volatile boolean built;
+
+    public boolean isBuilt() {
+        return built;
+    }
+
+    public boolean acceptsUpdates() {
+        return built || building;
+    }
+
+    // Call before reading the snapshot that is passed to rebuild.
+    public void beginBuild() {
+        lock.writeLock().lock();
+        try {
+            pending.clear();
+            building = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void rebuild(Collection<Player> players) {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            trigrams.clear();
+            tokens.clear();
+            for (Player player : players) {
+                add(player);
+            }
+            for (Map.Entry<Integer, Player> write : pending.entrySet()) {
+                removeInternal(write.getKey());
+                if (write.getValue() != null) {
+                    add(write.getValue());
+                }
+            }
+            pending.clear();
+            building = false;
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Player player) {
+        lock.writeLock().lock();
+        try {
+            if (built) {
+                removeInternal(player.getId());
+                add(player);
+            } else if (building) {
+                pending.remove(player.getId());
+                pending.put(player.getId(), player);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int playerId) {
+        lock.writeLock().lock();
+        try {
+            if (built) {
+                removeInternal(playerId);
+            } else if (building) {
+                pending.remove(playerId);
+                pending.put(playerId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Player> search(String query) {
+        String needle = normalize(query);
+        if (needle.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Document> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (needle.length() >= 3) {
+                for (int id : trigramCandidates(needle)) {
+                    Document document = documents.get(id);
+                    if (document.name.contains(needle) || document.email.contains(needle)) {
+                        matches.add(document);
+                    }
+                }
+            } else {
+                for (int id : prefixCandidates(needle)) {
+                    matches.add(documents.get(id));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(BY_NAME);
+        List<Player> players = new ArrayList<>(matches.size());
+        for (Document document : matches) {
+            players.add(document.player.copy());
+        }
+        return players;
+    }
+
+    private int[] prefixCandidates(String prefix) {
+        int[] ids = new int[16];
+        int count = 0;
+        for (Postings postings : tokens.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (count + postings.size > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(ids.length * 2, count + postings.size));
+            }
+            System.arraycopy(postings.ids, 0, ids, count, postings.size);
+            count += postings.size;
+        }
+        Arrays.sort(ids, 0, count);
+
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || ids[unique - 1] != ids[i]) {
+                ids[unique++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(ids, unique);
+    }
+
+    private int[] trigramCandidates(String needle) {
+        List<Postings> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= needle.length(); i++) {
+            Postings postings = trigrams.get(trigramKey(needle, i));
+            if (postings == null) {
+                return new int[0];
+            }
+            lists.add(postings);
+        }
+        lists.sort(Comparator.comparingInt(p -> p.size));
+
+        int[] result = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] candidates, Postings postings) {
+        int[] out = new int[Math.min(candidates.length, postings.size)];
+        int count = 0;
+        int from = 0;
+        for (int id : candidates) {
+            int pos = Arrays.binarySearch(postings.ids, from, postings.size, id);
+            if (pos >= 0) {
+                out[count++] = id;
+                from = pos + 1;
+            } else {
+                from = -pos - 1;
+            }
+            if (from >= postings.size) {
+                break;
+            }
+        }
+        return Arrays.copyOf(out, count);
+    }
+
+    private void add(Player player) {
+        Document document = new Document(player);
+        documents.put(player.getId(), document);
+        for (long key : document.trigramKeys()) {
+            trigrams.computeIfAbsent(key, k -> new Postings()).add(player.getId());
+        }
+        for (String token : document.tokens()) {
+            tokens.computeIfAbsent(token, k -> new Postings()).add(player.getId());
+        }
+    }
+
+    private void removeInternal(int playerId) {
+        Document document = documents.remove(playerId);
+        if (document == null) {
+            return;
+        }
+        for (long key : document.trigramKeys()) {
+            Postings postings = trigrams.get(key);
+            if (postings != null && postings.remove(playerId) && postings.size == 0) {
+                trigrams.remove(key);
+            }
+        }
+        for (String token : document.tokens()) {
+            Postings postings = tokens.get(token);
+            if (postings != null && postings.remove(playerId) && postings.size == 0) {
+                tokens.remove(token);
+            }
+        }
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT).trim();
+    }
+
+    private static long trigramKey(String value, int offset) {
+        return ((long) value.charAt(offset) << 32)
+            | ((long) value.charAt(offset + 1) << 16)
+            | value.charAt(offset + 2);
+    }
+
+    private static final class Document {
+        private final Player player;
+        private final String name;
+        private final String email;
+        private final String sortKey;
+
+        private Document(Player player) {
+            this.player = player.copy();
+            this.name = normalize(player.getFullName());
+            this.email = normalize(player.getEmail());
+            this.sortKey = normalize(player.getFirstName()) + '\u0000' + normalize(player.getLastName());
+        }
+
+        private Set<Long> trigramKeys() {
+            Set<Long> keys = new HashSet<>();
+            for (String field : new String[]{name, email}) {
+                for (int i = 0; i + 3 <= field.length(); i++) {
+                    keys.add(trigramKey(field, i));
+                }
+            }
+            return keys;
+        }
+
+        private Set<String> tokens() {
+            Set<String> result = new HashSet<>();
+            for (String field : new String[]{name, email}) {
+                if (!field.isEmpty()) {
+                    result.add(field);
+                }
+                for (String token : TOKEN_SEPARATORS.split(field)) {
+                    if (!token.isEmpty()) {
+                        result.add(token);
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    // Sorted, growable array of player ids.
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -pos - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        private boolean remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+    }
+}
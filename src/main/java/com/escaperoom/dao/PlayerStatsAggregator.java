@@ -0,0 +1,514 @@
+package com.escaperoom.dao;
+
+import com.escaperoom.database.DatabaseConnection;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind aggregation of player statistics. Finished game sessions are added as
+ * per-player deltas to in-memory counters and written with one batched
+ * "SET col = col + ?" UPDATE every flush interval, or sooner once flushThreshold
+ * sessions are pending.
+ *
+ * A session that is changed or deleted later is taken out again with a negative delta.
+ *
+ * Every delta is first appended to a local journal and forced to disk, each entry with
+ * a sequence number. A flush stores the highest sequence it applied in
+ * player_stats_checkpoint in the same transaction as the counters, then deletes the
+ * journal segments it covered. On start, entries above the checkpoint are replayed,
+ * so a crash neither loses nor double-counts a delta.
+ *
+ * Deltas that cannot be journaled, because the aggregator failed to start or an append
+ * failed, are held in memory and journaled with the next record or at start.
+ */
+class PlayerStatsAggregator {
+
+    private static final NamedSql APPLY_DELTA = SqlRegistry.define("playerStats.applyDelta",
+        // average_time comes first: MySQL evaluates SET left to right, and it needs the old game count
+        "UPDATE players SET "
+        + "average_time = CASE WHEN total_games_played + ? > 0 "
+        + "THEN (average_time * total_games_played + ?) / (total_games_played + ?) ELSE 0 END, "
+        + "total_games_played = total_games_played + ?, games_won = games_won + ?, games_lost = games_lost + ?, "
+        + "total_hints_used = total_hints_used + ? WHERE id = ?");
+    private static final NamedSql FIND_CHECKPOINT = SqlRegistry.define("playerStats.findCheckpoint",
+        "SELECT last_sequence FROM player_stats_checkpoint WHERE journal_id = ?");
+    private static final NamedSql UPDATE_CHECKPOINT = SqlRegistry.define("playerStats.updateCheckpoint",
+        "UPDATE player_stats_checkpoint SET last_sequence = ? WHERE journal_id = ?");
+    private static final NamedSql INSERT_CHECKPOINT = SqlRegistry.define("playerStats.insertCheckpoint",
+        "INSERT INTO player_stats_checkpoint (journal_id, last_sequence) VALUES (?, ?)");
+
+    private static final String JOURNAL_ID_FILE = "journal.id";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final long flushIntervalMillis;
+    private final int flushThreshold;
+    private final Consumer<Collection<Integer>> onFlushed;
+
+    // Recording holds the read lock, so a flush swaps deltas and journal segment atomically
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private Map<Integer, Delta> pending = new ConcurrentHashMap<>();
+    private Segment segment;
+    private final List<Path> unflushedSegments = new ArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger pendingSessions = new AtomicInteger();
+    private long nextSegment = 1;
+    // Entries not yet journaled; their sequence is assigned when they are
+    private final List<JournalEntry> deferred = new ArrayList<>();
+
+    private ScheduledExecutorService flusher;
+    private String journalId;
+    private volatile boolean started;
+
+    PlayerStatsAggregator(Path directory, long flushIntervalMillis, int flushThreshold,
+                          Consumer<Collection<Integer>> onFlushed) {
+        this.directory = directory;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flushThreshold = flushThreshold;
+        this.onFlushed = onFlushed;
+    }
+
+    // Opens the journal, replays what the last run did not flush and starts the flush schedule.
+    synchronized void start() throws IOException, SQLException {
+        if (started) {
+            return;
+        }
+        Files.createDirectories(directory);
+        journalId = readJournalId();
+
+        // Nothing is kept until the new segment is open, so a failed start can simply be retried
+        long checkpoint = readCheckpoint();
+        long lastSequence = checkpoint;
+        long segmentNumber = nextSegment;
+        List<JournalEntry> replay = new ArrayList<>();
+        List<Path> paths = segmentFiles();
+        for (Path path : paths) {
+            for (JournalEntry entry : readSegment(path)) {
+                lastSequence = Math.max(lastSequence, entry.sequence);
+                if (entry.sequence > checkpoint) {
+                    replay.add(entry);
+                }
+            }
+            segmentNumber = Math.max(segmentNumber, Segment.numberOf(path) + 1);
+        }
+        segment = Segment.open(directory, segmentNumber);
+        nextSegment = segmentNumber + 1;
+        unflushedSegments.addAll(paths);
+        sequence.set(lastSequence);
+        for (JournalEntry entry : replay) {
+            pending.computeIfAbsent(entry.playerId, id -> new Delta()).add(entry);
+        }
+        int replayed = replay.size();
+        synchronized (deferred) {
+            if (!deferred.isEmpty()) {
+                try {
+                    journal(new ArrayList<>());
+                } catch (IOException e) {
+                    System.err.println("Error journaling player statistics: " + e.getMessage());
+                }
+            }
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "player-stats-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        started = true;
+
+        if (replayed > 0) {
+            System.err.println("Replaying " + replayed + " journaled player statistics updates");
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    boolean isStarted() {
+        return started;
+    }
+
+    // Journals the session's deltas for every player, then adds them to the counters;
+    // sign is 1 for a finished session and -1 to take one out again.
+    void record(Collection<Integer> playerIds, boolean won, int timeSpent, int hintsUsed, int sign) throws IOException {
+        if (playerIds.isEmpty()) {
+            return;
+        }
+        List<JournalEntry> entries = entries(playerIds, won, timeSpent, hintsUsed, sign);
+        swapLock.readLock().lock();
+        try {
+            synchronized (deferred) {
+                journal(entries);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+
+        if (pendingSessions.incrementAndGet() >= flushThreshold) {
+            pendingSessions.set(0);
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    // Keeps a session's deltas in memory while the aggregator cannot be started.
+    void defer(Collection<Integer> playerIds, boolean won, int timeSpent, int hintsUsed, int sign) {
+        synchronized (deferred) {
+            deferred.addAll(entries(playerIds, won, timeSpent, hintsUsed, sign));
+        }
+    }
+
+    int deferredCount() {
+        synchronized (deferred) {
+            return deferred.size();
+        }
+    }
+
+    // Appends the deferred entries and then the given ones; on failure all of them stay deferred.
+    private void journal(List<JournalEntry> entries) throws IOException {
+        List<JournalEntry> numbered = new ArrayList<>(deferred.size() + entries.size());
+        for (List<JournalEntry> source : List.of(deferred, entries)) {
+            for (JournalEntry entry : source) {
+                numbered.add(new JournalEntry(sequence.incrementAndGet(), entry.playerId, entry.won,
+                    entry.timeSpent, entry.hintsUsed, entry.sign));
+            }
+        }
+        try {
+            segment.append(numbered);
+        } catch (IOException e) {
+            deferred.addAll(entries);
+            throw e;
+        }
+        deferred.clear();
+        for (JournalEntry entry : numbered) {
+            pending.computeIfAbsent(entry.playerId, id -> new Delta()).add(entry);
+        }
+    }
+
+    private static List<JournalEntry> entries(Collection<Integer> playerIds, boolean won, int timeSpent,
+                                              int hintsUsed, int sign) {
+        List<JournalEntry> entries = new ArrayList<>(playerIds.size());
+        for (int playerId : playerIds) {
+            entries.add(new JournalEntry(0, playerId, won, timeSpent, hintsUsed, sign));
+        }
+        return entries;
+    }
+
+    synchronized void flush() throws IOException, SQLException {
+        if (!started) {
+            return;
+        }
+        Map<Integer, Delta> snapshot;
+        long lastSequence = 0;
+        swapLock.writeLock().lock();
+        try {
+            snapshot = pending;
+            if (!snapshot.isEmpty()) {
+                pending = new ConcurrentHashMap<>();
+                lastSequence = sequence.get();
+                segment.close();
+                unflushedSegments.add(segment.path);
+                segment = Segment.open(directory, nextSegment++);
+                pendingSessions.set(0);
+            }
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        if (!snapshot.isEmpty()) {
+            try {
+                write(snapshot, lastSequence);
+            } catch (SQLException e) {
+                // Keep the deltas for the next attempt; their segments stay on disk until then
+                swapLock.readLock().lock();
+                try {
+                    for (Map.Entry<Integer, Delta> entry : snapshot.entrySet()) {
+                        pending.computeIfAbsent(entry.getKey(), id -> new Delta()).add(entry.getValue());
+                    }
+                } finally {
+                    swapLock.readLock().unlock();
+                }
+                throw e;
+            }
+        }
+
+        for (Path path : unflushedSegments) {
+            Files.deleteIfExists(path);
+        }
+        unflushedSegments.clear();
+
+        if (!snapshot.isEmpty()) {
+            onFlushed.accept(snapshot.keySet());
+        }
+    }
+
+    // Waits for a running flush instead of interrupting it, which would close the journal channel.
+    void shutdown() {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            if (!started) {
+                reportUnjournaled();
+                return;
+            }
+            executor = flusher;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (this) {
+            synchronized (deferred) {
+                if (!deferred.isEmpty()) {
+                    try {
+                        journal(new ArrayList<>());
+                    } catch (IOException e) {
+                        System.err.println("Error journaling player statistics: " + e.getMessage());
+                    }
+                }
+            }
+            flushQuietly();
+            reportUnjournaled();
+            try {
+                segment.close();
+            } catch (IOException e) {
+                System.err.println("Error closing player statistics journal: " + e.getMessage());
+            }
+            started = false;
+        }
+    }
+
+    private void reportUnjournaled() {
+        int unjournaled = deferredCount();
+        if (unjournaled > 0) {
+            System.err.println("Lost " + unjournaled + " player statistics updates that could not be journaled");
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | SQLException e) {
+            System.err.println("Error flushing player statistics: " + e.getMessage());
+        }
+    }
+
+    private void write(Map<Integer, Delta> snapshot, long lastSequence) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement stmt = conn.prepareStatement(APPLY_DELTA.sql())) {
+                for (Map.Entry<Integer, Delta> entry : snapshot.entrySet()) {
+                    Delta delta = entry.getValue();
+                    long games = delta.games.sum();
+                    stmt.setLong(1, games);
+                    stmt.setLong(2, delta.timeSpent.sum());
+                    stmt.setLong(3, games);
+                    stmt.setLong(4, games);
+                    stmt.setLong(5, delta.won.sum());
+                    stmt.setLong(6, delta.lost.sum());
+                    stmt.setLong(7, delta.hints.sum());
+                    stmt.setInt(8, entry.getKey());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+
+                saveCheckpoint(conn, lastSequence);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private long readCheckpoint() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(FIND_CHECKPOINT.sql())) {
+
+            stmt.setString(1, journalId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private void saveCheckpoint(Connection conn, long lastSequence) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(UPDATE_CHECKPOINT.sql())) {
+            stmt.setLong(1, lastSequence);
+            stmt.setString(2, journalId);
+            if (stmt.executeUpdate() > 0) {
+                return;
+            }
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_CHECKPOINT.sql())) {
+            stmt.setString(1, journalId);
+            stmt.setLong(2, lastSequence);
+            stmt.executeUpdate();
+        }
+    }
+
+    // Identifies this journal in player_stats_checkpoint, so several installations can share a database.
+    private String readJournalId() throws IOException {
+        Path file = directory.resolve(JOURNAL_ID_FILE);
+        if (Files.exists(file)) {
+            return new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+        }
+        String id = UUID.randomUUID().toString();
+        Files.write(file, id.getBytes(StandardCharsets.UTF_8));
+        return id;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                paths.add(path);
+            }
+        }
+        paths.sort(null);
+        return paths;
+    }
+
+    // A torn last line from a crash mid-append is skipped; it was never acknowledged.
+    private static List<JournalEntry> readSegment(Path path) throws IOException {
+        List<JournalEntry> entries = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JournalEntry entry = JournalEntry.parse(line);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static final class Delta {
+        private final LongAdder games = new LongAdder();
+        private final LongAdder won = new LongAdder();
+        private final LongAdder lost = new LongAdder();
+        private final LongAdder timeSpent = new LongAdder();
+        private final LongAdder hints = new LongAdder();
+
+        private void add(JournalEntry entry) {
+            games.add(entry.sign);
+            (entry.won ? won : lost).add(entry.sign);
+            timeSpent.add((long) entry.sign * entry.timeSpent);
+            hints.add((long) entry.sign * entry.hintsUsed);
+        }
+
+        private void add(Delta other) {
+            games.add(other.games.sum());
+            won.add(other.won.sum());
+            lost.add(other.lost.sum());
+            timeSpent.add(other.timeSpent.sum());
+            hints.add(other.hints.sum());
+        }
+    }
+
+    private static final class JournalEntry {
+        private final long sequence;
+        private final int playerId;
+        private final boolean won;
+        private final int timeSpent;
+        private final int hintsUsed;
+        private final int sign;
+
+        private JournalEntry(long sequence, int playerId, boolean won, int timeSpent, int hintsUsed, int sign) {
+            this.sequence = sequence;
+            this.playerId = playerId;
+            this.won = won;
+            this.timeSpent = timeSpent;
+            this.hintsUsed = hintsUsed;
+            this.sign = sign;
+        }
+
+        private String format() {
+            return sequence + " " + playerId + " " + (won ? 1 : 0) + " " + timeSpent + " " + hintsUsed + " " + sign + " ;\n";
+        }
+
+        private static JournalEntry parse(String line) {
+            String[] fields = line.split(" ");
+            if (fields.length != 7 || !";".equals(fields[6])) {
+                return null;
+            }
+            try {
+                return new JournalEntry(Long.parseLong(fields[0]), Integer.parseInt(fields[1]), "1".equals(fields[2]),
+                    Integer.parseInt(fields[3]), Integer.parseInt(fields[4]), Integer.parseInt(fields[5]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final FileChannel channel;
+
+        private Segment(Path path, FileChannel channel) {
+            this.path = path;
+            this.channel = channel;
+        }
+
+        // Numbered in creation order, zero-padded so names sort in order.
+        private static Segment open(Path directory, long number) throws IOException {
+            Path path = directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+            return new Segment(path, FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND));
+        }
+
+        private static long numberOf(Path path) {
+            String name = path.getFileName().toString();
+            try {
+                return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        private synchronized void append(List<JournalEntry> entries) throws IOException {
+            StringBuilder lines = new StringBuilder();
+            for (JournalEntry entry : entries) {
+                lines.append(entry.format());
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+
+        private void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.escaperoom.dao;
+
+import com.escaperoom.database.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Self-check that runs EXPLAIN for every registered SELECT and warns about statements
+ * the database answers with a full table scan, which usually means an index migration
+ * is missing. Statements registered with SqlRegistry.defineScan are skipped, and so
+ * are scans of tables below escaperoom.db.planCheck.minRows rows (default 1000).
+ *
+ * Each placeholder is bound to a value sampled from the column it is compared with,
+ * so MySQL plans the statement as it would for real input. The plans depend on the
+ * data: run it against a database of realistic size.
+ */
+public class QueryPlanCheck {
+
+    private static final Pattern COMPARED_COLUMN = Pattern.compile(
+        "([A-Za-z_][\\w.]*)\\s*(?:<=|>=|<>|!=|=|<|>|\\bLIKE\\b|\\bBETWEEN\\b|\\bIN\\s*\\()", Pattern.CASE_INSENSITIVE);
+    private static final Pattern LIMIT = Pattern.compile("\\bLIMIT\\s*$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern H2_TABLE_SCAN = Pattern.compile("/\\* (?:\\w+\\.)?(\\w+)\\.tableScan \\*/");
+    private static final int SAMPLE_LIMIT = 50;
+    private static final long MIN_ROWS = Long.getLong("escaperoom.db.planCheck.minRows", 1_000L);
+
+    // Returns one warning per statement that scans a table; they are also logged.
+    public static List<String> run() {
+        List<String> warnings = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            boolean mysql = conn.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql");
+            Map<String, String> columnTables = columnTables(conn);
+            Map<String, Object> samples = new HashMap<>();
+            Map<String, Long> tableRows = new HashMap<>();
+
+            for (NamedSql statement : SqlRegistry.all()) {
+                String sql = statement.hasInList() ? statement.expand(1) : statement.sql();
+                if (statement.isFullScan() || !sql.trim().toUpperCase(Locale.ROOT).startsWith("SELECT")) {
+                    continue;
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+                    bindSamples(conn, stmt, sql, columnTables, samples);
+                    ResultSet rs = stmt.executeQuery();
+
+                    List<String> scanned = new ArrayList<>();
+                    for (String table : mysql ? mysqlTableScans(rs) : h2TableScans(rs)) {
+                        if (!tableRows.containsKey(table)) {
+                            tableRows.put(table, countRows(conn, table));
+                        }
+                        if (tableRows.get(table) >= MIN_ROWS) {
+                            scanned.add(table + " (" + tableRows.get(table) + " rows)");
+                        }
+                    }
+                    if (!scanned.isEmpty()) {
+                        String warning = statement.name() + " scans " + String.join(", ", scanned);
+                        warnings.add(warning);
+                        System.err.println("Query plan warning: " + warning);
+                    }
+                } catch (SQLException e) {
+                    System.err.println("Error explaining " + statement.name() + ": " + e.getMessage());
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error checking query plans: " + e.getMessage());
+        }
+
+        return warnings;
+    }
+
+
+    private static List<String> mysqlTableScans(ResultSet rs) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        while (rs.next()) {
+            String table = rs.getString("table");
+            if ("ALL".equals(rs.getString("type")) && table != null && !table.startsWith("<")) {
+                tables.add(table);
+            }
+        }
+        return tables;
+    }
+
+
+    private static List<String> h2TableScans(ResultSet rs) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        while (rs.next()) {
+            Matcher scan = H2_TABLE_SCAN.matcher(rs.getString(1));
+            while (scan.find()) {
+                tables.add(scan.group(1));
+            }
+        }
+        return tables;
+    }
+
+
+    private static void bindSamples(Connection conn, PreparedStatement stmt, String sql,
+                                    Map<String, String> columnTables, Map<String, Object> samples) throws SQLException {
+        int index = 1;
+        for (int i = sql.indexOf('?'); i >= 0; i = sql.indexOf('?', i + 1)) {
+            String before = sql.substring(0, i);
+            if (LIMIT.matcher(before).find()) {
+                stmt.setInt(index++, SAMPLE_LIMIT);
+                continue;
+            }
+
+            String column = null;
+            Matcher compared = COMPARED_COLUMN.matcher(before);
+            while (compared.find()) {
+                column = compared.group(1);
+            }
+            if (column != null) {
+                column = column.substring(column.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+            }
+
+            String table = columnTables.get(column);
+            if (table == null) {
+                stmt.setString(index++, "%");
+                continue;
+            }
+            if (!samples.containsKey(column)) {
+                samples.put(column, sampleValue(conn, table, column));
+            }
+            Object value = samples.get(column);
+            if (value == null) {
+                stmt.setNull(index++, Types.VARCHAR);
+            } else {
+                stmt.setObject(index++, value);
+            }
+        }
+    }
+
+
+    private static long countRows(Connection conn, String table) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM " + table)) {
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+
+    // Any non-null value of the column, or null when the table is empty.
+    private static Object sampleValue(Connection conn, String table, String column) throws SQLException {
+        String sql = "SELECT " + column + " FROM " + table + " WHERE " + column + " IS NOT NULL LIMIT 1";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getObject(1) : null;
+        }
+    }
+
+
+    private static Map<String, String> columnTables(Connection conn) throws SQLException {
+        Map<String, String> tables = new HashMap<>();
+        try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), conn.getSchema(), "%", "%")) {
+            while (rs.next()) {
+                tables.putIfAbsent(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT), rs.getString("TABLE_NAME"));
+            }
+        }
+        return tables;
+    }
+}
@@ -0,0 +1,65 @@
+package com.escaperoom.dao;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Splits an inclusive [start, end] range into the whole days that can be read from
+ * daily_room_revenue and the partial days at either edge that still come from
+ * game_sessions. start_time is a DATETIME, so a day counts as whole once the range
+ * reaches its last second.
+ */
+final class RevenueWindow {
+
+    // Rollup days first, then the head and tail ranges over game_sessions.start_time.
+    static final String ROLLUP_CONDITION = "revenue_date BETWEEN ? AND ?";
+    static final String RAW_CONDITION = "((start_time >= ? AND start_time < ?) OR (start_time >= ? AND start_time <= ?))";
+
+    private static final LocalTime LAST_SECOND = LocalTime.of(23, 59, 59);
+
+    private final LocalDate firstFullDay;
+    private final LocalDate lastFullDay;
+    private final LocalDateTime headStart;
+    private final LocalDateTime headEnd;
+    private final LocalDateTime tailStart;
+    private final LocalDateTime tailEnd;
+
+    RevenueWindow(LocalDateTime start, LocalDateTime end) {
+        LocalDate firstFull = start.toLocalTime().equals(LocalTime.MIDNIGHT)
+            ? start.toLocalDate() : start.toLocalDate().plusDays(1);
+        LocalDate lastFull = end.toLocalTime().isBefore(LAST_SECOND)
+            ? end.toLocalDate().minusDays(1) : end.toLocalDate();
+
+        this.firstFullDay = firstFull;
+        this.lastFullDay = lastFull;
+        this.headStart = start;
+        this.tailEnd = end;
+        if (firstFull.isAfter(lastFull)) {
+            // No whole day inside the range: an empty head and a tail covering everything
+            this.headEnd = start;
+            this.tailStart = start;
+        } else {
+            this.headEnd = firstFull.atStartOfDay();
+            this.tailStart = lastFull.plusDays(1).atStartOfDay();
+        }
+    }
+
+    int bindRollup(PreparedStatement stmt, int index) throws SQLException {
+        stmt.setDate(index++, Date.valueOf(firstFullDay));
+        stmt.setDate(index++, Date.valueOf(lastFullDay));
+        return index;
+    }
+
+    int bindRaw(PreparedStatement stmt, int index) throws SQLException {
+        stmt.setTimestamp(index++, Timestamp.valueOf(headStart));
+        stmt.setTimestamp(index++, Timestamp.valueOf(headEnd));
+        stmt.setTimestamp(index++, Timestamp.valueOf(tailStart));
+        stmt.setTimestamp(index++, Timestamp.valueOf(tailEnd));
+        return index;
+    }
+}
@@ -0,0 +1,126 @@
+package com.escaperoom.dao;
+
+import com.escaperoom.models.Room;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded, TTL-based identity map for rooms. While a room's row is unchanged every
+ * lookup returns the same instance. A row that changed replaces the entry with a new
+ * instance. Cached rooms are shared and never modified; code that edits a room works
+ * on Room.copy().
+ */
+public class RoomCache {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<Integer, Entry> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public RoomCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<Integer, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() > RoomCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized Room get(int id) {
+        Entry entry = entries.get(id);
+        if (entry != null && !isExpired(entry)) {
+            hits++;
+            return entry.room;
+        }
+        if (entry != null) {
+            entries.remove(id);
+            evictions++;
+        }
+        misses++;
+        return null;
+    }
+
+    // Returns the cached instance when it holds the same state as room, otherwise caches room.
+    public synchronized Room put(Room room) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(room.getId());
+        if (entry != null && (entry.room == room || sameState(entry.room, room))) {
+            entry.loadedAt = now;
+            return entry.room;
+        }
+        entries.put(room.getId(), new Entry(room, now));
+        return room;
+    }
+
+    public synchronized void invalidate(int id) {
+        entries.remove(id);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "size=" + entries.size() + "/" + maxSize + ", hits=" + hits + ", misses=" + misses
+            + ", evictions=" + evictions;
+    }
+
+    private boolean isExpired(Entry entry) {
+        return System.currentTimeMillis() - entry.loadedAt > ttlMillis;
+    }
+
+    private static boolean sameState(Room a, Room b) {
+        return Objects.equals(a.getName(), b.getName())
+            && Objects.equals(a.getTheme(), b.getTheme())
+            && a.getDifficulty() == b.getDifficulty()
+            && a.getCapacity() == b.getCapacity()
+            && Double.compare(a.getPrice(), b.getPrice()) == 0
+            && a.getDuration() == b.getDuration()
+            && Objects.equals(a.getDescription(), b.getDescription())
+            && a.isActive() == b.isActive()
+            && Double.compare(a.getAverageRating(), b.getAverageRating()) == 0;
+    }
+
+    private static final class Entry {
+        private final Room room;
+        private long loadedAt;
+
+        private Entry(Room room, long loadedAt) {
+            this.room = room;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -1,27 +1,75 @@
 package com.escaperoom.dao;
 
 import com.escaperoom.database.DatabaseConnection;
+import com.escaperoom.database.UnitOfWork;
 import com.escaperoom.models.Room;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 
 public class RoomDAO {
     
+    private static final NamedSql FIND_BY_ID = SqlRegistry.define("room.findById",
+        "SELECT * FROM rooms WHERE id = ?");
+    private static final NamedSql FIND_ALL = SqlRegistry.defineScan("room.findAll",
+        "SELECT * FROM rooms ORDER BY name");
+    private static final NamedSql FIND_BY_IDS = SqlRegistry.define("room.findByIds",
+        "SELECT * FROM rooms WHERE id IN ({in})");
+    private static final NamedSql FIND_ACTIVE = SqlRegistry.define("room.findActive",
+        "SELECT * FROM rooms WHERE is_active = TRUE ORDER BY name");
+    private static final NamedSql FIND_BY_THEME = SqlRegistry.define("room.findByTheme",
+        "SELECT * FROM rooms WHERE theme = ? ORDER BY name");
+    private static final NamedSql SAVE = SqlRegistry.define("room.save",
+        "INSERT INTO rooms (name, theme, difficulty, capacity, price, duration, description, is_active, average_rating) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+    private static final NamedSql UPDATE = SqlRegistry.define("room.update",
+        "UPDATE rooms SET name = ?, theme = ?, difficulty = ?, capacity = ?, price = ?, duration = ?, description = ?, is_active = ? WHERE id = ?");
+    private static final NamedSql DELETE = SqlRegistry.define("room.delete",
+        "DELETE FROM rooms WHERE id = ?");
+    // average_rating comes first: MySQL evaluates SET left to right, so the later columns would already be updated.
+    // A room whose last rating is removed goes back to 0, like a room that was never rated.
+    private static final NamedSql APPLY_RATING_DELTA = SqlRegistry.define("room.applyRatingDelta",
+        "UPDATE rooms SET average_rating = CASE WHEN rating_count + ? > 0 " +
+        "THEN CAST(rating_sum + ? AS DECIMAL(12,4)) / (rating_count + ?) ELSE 0 END, " +
+        "rating_sum = rating_sum + ?, rating_count = rating_count + ? WHERE id = ?");
+    private static final NamedSql RECONCILE_RATING_TOTALS = SqlRegistry.defineScan("room.reconcileRatingTotals",
+        "UPDATE rooms SET " +
+        "rating_sum = COALESCE((SELECT SUM(rating) FROM game_sessions WHERE game_sessions.room_id = rooms.id), 0), " +
+        "rating_count = (SELECT COUNT(rating) FROM game_sessions WHERE game_sessions.room_id = rooms.id)");
+    private static final NamedSql RECONCILE_AVERAGE_RATING = SqlRegistry.defineScan("room.reconcileAverageRating",
+        "UPDATE rooms SET average_rating = CASE WHEN rating_count > 0 " +
+        "THEN CAST(rating_sum AS DECIMAL(12,4)) / rating_count ELSE 0 END");
+    
+    private static final RoomCache CACHE = new RoomCache(
+        Integer.getInteger("escaperoom.roomCache.maxSize", 256),
+        Long.getLong("escaperoom.roomCache.ttlMs", 600_000L));
+    
+
+    public static RoomCache getCache() {
+        return CACHE;
+    }
+    
 
     public Room findById(int id) {
-        String sql = "SELECT * FROM rooms WHERE id = ?";
+        Room cached = CACHE.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID.sql())) {
             
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return extractRoomFromResultSet(rs);
+                return CACHE.put(extractRoomFromResultSet(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding room: " + e.getMessage());
@@ -33,14 +81,13 @@ public class RoomDAO {
 
     public List<Room> findAll() {
         List<Room> rooms = new ArrayList<>();
-        String sql = "SELECT * FROM rooms ORDER BY name";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(FIND_ALL.sql());
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
-                rooms.add(extractRoomFromResultSet(rs));
+                rooms.add(CACHE.put(extractRoomFromResultSet(rs)));
             }
         } catch (SQLException e) {
             System.err.println("Error finding all rooms: " + e.getMessage());
@@ -52,14 +99,13 @@ public class RoomDAO {
 
     public List<Room> findActive() {
         List<Room> rooms = new ArrayList<>();
-        String sql = "SELECT * FROM rooms WHERE is_active = TRUE ORDER BY name";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(FIND_ACTIVE.sql());
+             ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
-                rooms.add(extractRoomFromResultSet(rs));
+                rooms.add(CACHE.put(extractRoomFromResultSet(rs)));
             }
         } catch (SQLException e) {
             System.err.println("Error finding active rooms: " + e.getMessage());
@@ -71,16 +117,15 @@ public class RoomDAO {
 
     public List<Room> findByTheme(String theme) {
         List<Room> rooms = new ArrayList<>();
-        String sql = "SELECT * FROM rooms WHERE theme = ? ORDER BY name";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_THEME.sql())) {
             
             stmt.setString(1, theme);
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
-                rooms.add(extractRoomFromResultSet(rs));
+                rooms.add(CACHE.put(extractRoomFromResultSet(rs)));
             }
         } catch (SQLException e) {
             System.err.println("Error finding rooms by theme: " + e.getMessage());
@@ -91,10 +136,8 @@ public class RoomDAO {
     
 
     public void save(Room room) {
-        String sql = "INSERT INTO rooms (name, theme, difficulty, capacity, price, duration, description, is_active, average_rating) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = conn.prepareStatement(SAVE.sql(), Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setString(1, room.getName());
             stmt.setString(2, room.getTheme());
@@ -111,6 +154,8 @@ public class RoomDAO {
             ResultSet keys = stmt.getGeneratedKeys();
             if (keys.next()) {
                 room.setId(keys.getInt(1));
+                Room cached = room.copy();
+                UnitOfWork.afterCommit(() -> CACHE.put(cached));
             }
         } catch (SQLException e) {
             System.err.println("Error saving room: " + e.getMessage());
@@ -119,10 +164,8 @@ public class RoomDAO {
     
 
     public void update(Room room) {
-        String sql = "UPDATE rooms SET name = ?, theme = ?, difficulty = ?, capacity = ?, price = ?, duration = ?, description = ?, is_active = ?, average_rating = ? WHERE id = ?";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(UPDATE.sql())) {
             
             stmt.setString(1, room.getName());
             stmt.setString(2, room.getTheme());
@@ -132,10 +175,15 @@ public class RoomDAO {
             stmt.setInt(6, room.getDuration());
             stmt.setString(7, room.getDescription());
             stmt.setBoolean(8, room.isActive());
-            stmt.setDouble(9, room.getAverageRating());
-            stmt.setInt(10, room.getId());
+            stmt.setInt(9, room.getId());
             
             stmt.executeUpdate();
+            UnitOfWork.afterCommit(() -> {
+                // average_rating is maintained from the game session ratings, so reload it rather than trust the caller's copy
+                CACHE.invalidate(room.getId());
+                // Booked intervals are derived from the room's duration
+                BookingDAO.getAvailability().invalidate(room.getId());
+            });
         } catch (SQLException e) {
             System.err.println("Error updating room: " + e.getMessage());
         }
@@ -143,30 +191,89 @@ public class RoomDAO {
     
 
     public void delete(int id) {
-        String sql = "DELETE FROM rooms WHERE id = ?";
-        
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(DELETE.sql())) {
             
             stmt.setInt(1, id);
             stmt.executeUpdate();
+            UnitOfWork.afterCommit(() -> {
+                CACHE.invalidate(id);
+                BookingDAO.getAvailability().invalidate(id);
+            });
         } catch (SQLException e) {
             System.err.println("Error deleting room: " + e.getMessage());
         }
     }
     
 
-    public void updateRating(int roomId, double newRating) {
-        String sql = "UPDATE rooms SET average_rating = ? WHERE id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    // Recomputes every room's rating totals from the game session history, for repairs after
+    // sessions were written outside GameSessionDAO. Rooms without rated sessions get 0.
+    public void reconcileRatings() {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
             
-            stmt.setDouble(1, newRating);
-            stmt.setInt(2, roomId);
-            stmt.executeUpdate();
+            try (PreparedStatement totals = conn.prepareStatement(RECONCILE_RATING_TOTALS.sql());
+                 PreparedStatement average = conn.prepareStatement(RECONCILE_AVERAGE_RATING.sql())) {
+                totals.executeUpdate();
+                average.executeUpdate();
+                conn.commit();
+                UnitOfWork.afterCommit(CACHE::invalidateAll);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
-            System.err.println("Error updating room rating: " + e.getMessage());
+            System.err.println("Error reconciling room ratings: " + e.getMessage());
+        }
+    }
+    
+
+    // Adds sumDelta and countDelta to the room's rating totals inside the caller's transaction
+    // and recomputes average_rating from them; call ratingsChanged after the commit.
+    static void applyRatingDelta(Connection conn, int roomId, int sumDelta, int countDelta) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(APPLY_RATING_DELTA.sql())) {
+            stmt.setInt(1, countDelta);
+            stmt.setInt(2, sumDelta);
+            stmt.setInt(3, countDelta);
+            stmt.setInt(4, sumDelta);
+            stmt.setInt(5, countDelta);
+            stmt.setInt(6, roomId);
+            stmt.executeUpdate();
+        }
+    }
+    
+    static void ratingsChanged(Collection<Integer> roomIds) {
+        UnitOfWork.afterCommit(() -> {
+            for (Integer roomId : roomIds) {
+                CACHE.invalidate(roomId);
+            }
+        });
+    }
+    
+
+    void loadInto(Connection conn, Collection<Integer> ids, Map<Integer, Room> rooms) throws SQLException {
+        Set<Integer> missing = new HashSet<>();
+        for (Integer id : ids) {
+            if (!rooms.containsKey(id)) {
+                Room cached = CACHE.get(id);
+                if (cached != null) {
+                    rooms.put(id, cached);
+                } else {
+                    missing.add(id);
+                }
+            }
+        }
+        
+        for (List<Integer> chunk : InClause.partition(missing)) {
+            try (PreparedStatement stmt = conn.prepareStatement(FIND_BY_IDS.expand(InClause.paddedSize(chunk.size())))) {
+                InClause.bind(stmt, 1, chunk);
+                ResultSet rs = stmt.executeQuery();
+                
+                while (rs.next()) {
+                    Room room = CACHE.put(extractRoomFromResultSet(rs));
+                    rooms.put(room.getId(), room);
+                }
+            }
         }
     }
     
@@ -0,0 +1,69 @@
+package com.escaperoom.dao;
+
+import com.escaperoom.database.QueryMetrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Every SQL statement the DAOs run, defined once as a NamedSql constant in the DAO
+ * that owns it. Keeping the text fixed lets the driver's prepared statement cache
+ * reuse it on every pooled connection, and the name labels the statement in
+ * QueryMetrics.
+ */
+public final class SqlRegistry {
+
+    private static final Map<String, NamedSql> STATEMENTS = new LinkedHashMap<>();
+
+    private static final String[] DAO_CLASSES = {
+        "com.escaperoom.dao.BookingDAO", "com.escaperoom.dao.GameSessionDAO", "com.escaperoom.dao.PlayerDAO",
+        "com.escaperoom.dao.RoomDAO", "com.escaperoom.dao.UserDAO", "com.escaperoom.dao.DashboardStatsDAO",
+        "com.escaperoom.dao.AvailabilityEngine", "com.escaperoom.dao.PlayerStatsAggregator"
+    };
+
+    private SqlRegistry() {
+    }
+
+    static NamedSql define(String name, String sql) {
+        return register(name, sql, false);
+    }
+
+    // For statements that read a whole table by design: small tables and full loads.
+    static NamedSql defineScan(String name, String sql) {
+        return register(name, sql, true);
+    }
+
+    private static synchronized NamedSql register(String name, String sql, boolean fullScan) {
+        NamedSql existing = STATEMENTS.get(name);
+        if (existing != null && !existing.sql().equals(sql)) {
+            throw new IllegalStateException("SQL name " + name + " is already registered for different text");
+        }
+        NamedSql statement = new NamedSql(name, sql, fullScan);
+        STATEMENTS.put(name, statement);
+        if (statement.hasInList()) {
+            // One placeholder, and any longer list, which QueryMetrics collapses to a single key
+            QueryMetrics.getInstance().nameStatement(statement.expand(1), name);
+            QueryMetrics.getInstance().nameStatement(statement.expand(2), name);
+        } else {
+            QueryMetrics.getInstance().nameStatement(sql, name);
+        }
+        return statement;
+    }
+
+    // All statements of every DAO, loading the DAO classes first if needed.
+    public static Collection<NamedSql> all() {
+        for (String className : DAO_CLASSES) {
+            try {
+                Class.forName(className, true, SqlRegistry.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("DAO class not found: " + className, e);
+            }
+        }
+        synchronized (SqlRegistry.class) {
+            return Collections.unmodifiableList(new ArrayList<>(STATEMENTS.values()));
+        }
+    }
+}
@@ -3,20 +3,125 @@ package com.escaperoom.dao;
 import com.escaperoom. database.DatabaseConnection;
 import com.escaperoom.models.User;
 import com.escaperoom.models.UserRole;
+import com.escaperoom.utils.LoginThrottle;
 import com.escaperoom.utils. PasswordHasher;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class UserDAO {
 
+    private static final NamedSql AUTHENTICATE = SqlRegistry.define("user.authenticate",
+        "SELECT * FROM users WHERE username = ? ");
+    private static final NamedSql REHASH_PASSWORD = SqlRegistry.define("user.rehashPassword",
+        "UPDATE users SET password_hash = ? WHERE id = ?");
+    private static final NamedSql FIND_BY_ID = SqlRegistry.define("user.findById",
+        "SELECT * FROM users WHERE id = ?");
+    private static final NamedSql FIND_ALL = SqlRegistry.defineScan("user.findAll",
+        "SELECT * FROM users ORDER BY username");
+    private static final NamedSql SAVE = SqlRegistry.define("user.save",
+        "INSERT INTO users (username, password_hash, role, first_name, last_name, email) VALUES (?, ?, ?, ?, ?, ?)");
+    private static final NamedSql UPDATE = SqlRegistry.define("user.update",
+        "UPDATE users SET username = ?, role = ?, first_name = ?, last_name = ?, email = ? WHERE id = ?");
+    private static final NamedSql DELETE = SqlRegistry.define("user.delete",
+        "DELETE FROM users WHERE id = ? ");
+
+    // BCrypt is deliberately slow, so logins get their own small, bounded pool
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final ExecutorService AUTH_EXECUTOR = new ThreadPoolExecutor(
+        Integer.getInteger("escaperoom.auth.threads", 2), Integer.getInteger("escaperoom.auth.threads", 2),
+        0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Integer.getInteger("escaperoom.auth.queueSize", 32)),
+        r -> {
+            Thread thread = new Thread(r, "auth-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    private static final LoginThrottle USER_THROTTLE = new LoginThrottle(
+        Integer.getInteger("escaperoom.auth.userFreeAttempts", 3), 1_000L, 300_000L, 900_000L);
+    private static final LoginThrottle TERMINAL_THROTTLE = new LoginThrottle(
+        Integer.getInteger("escaperoom.auth.terminalFreeAttempts", 10), 1_000L, 300_000L, 900_000L);
+
+    private static final String TERMINAL_ID = System.getProperty("escaperoom.terminalId", localHostName());
+
+
+    public CompletableFuture<User> authenticateAsync(String username, String password) {
+        return authenticateAsync(username, password, TERMINAL_ID);
+    }
+
+
+    // Completes with the user, with null for bad credentials, or exceptionally with
+    // LoginThrottle.ThrottledException while the username or terminal is locked out and
+    // with DataAccessException when the database could not be queried. Only attempts that
+    // reached a verdict count towards the lockout.
+    public CompletableFuture<User> authenticateAsync(String username, String password, String terminalId) {
+        String userKey = username.toLowerCase(Locale.ROOT);
+        long lockout = USER_THROTTLE.tryAcquire(userKey);
+        if (lockout > 0) {
+            return CompletableFuture.failedFuture(new LoginThrottle.ThrottledException(lockout));
+        }
+        lockout = TERMINAL_THROTTLE.tryAcquire(terminalId);
+        if (lockout > 0) {
+            USER_THROTTLE.release(userKey);
+            return CompletableFuture.failedFuture(new LoginThrottle.ThrottledException(lockout));
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                User user;
+                try {
+                    user = verify(username, password);
+                } catch (SQLException e) {
+                    USER_THROTTLE.release(userKey);
+                    TERMINAL_THROTTLE.release(terminalId);
+                    throw new DataAccessException("user.authenticate", e.getMessage(), e);
+                } catch (RuntimeException e) {
+                    USER_THROTTLE.release(userKey);
+                    TERMINAL_THROTTLE.release(terminalId);
+                    throw e;
+                }
+                if (user != null) {
+                    USER_THROTTLE.recordSuccess(userKey);
+                    TERMINAL_THROTTLE.recordSuccess(terminalId);
+                } else {
+                    USER_THROTTLE.recordFailure(userKey);
+                    TERMINAL_THROTTLE.recordFailure(terminalId);
+                }
+                return user;
+            }, AUTH_EXECUTOR);
+        } catch (RejectedExecutionException e) {
+            USER_THROTTLE.release(userKey);
+            TERMINAL_THROTTLE.release(terminalId);
+            return CompletableFuture.failedFuture(new IllegalStateException("Too many logins in progress, please try again", e));
+        }
+    }
+
 
     public User authenticate(String username, String password) {
-        String sql = "SELECT * FROM users WHERE username = ? ";
+        try {
+            return verify(username, password);
+        } catch (SQLException e) {
+            System. err.println("Error authenticating user: " + e.getMessage());
+        }
 
+        return null;
+    }
+
+
+    private User verify(String username, String password) throws SQLException {
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(AUTHENTICATE.sql())) {
 
             stmt.setString(1, username);
             ResultSet rs = stmt.executeQuery();
@@ -25,22 +130,39 @@ public class UserDAO {
                 String hashedPassword = rs.getString("password_hash");
 
                 if (PasswordHasher.verifyPassword(password, hashedPassword)) {
-                    return extractUserFromResultSet(rs);
+                    User user = extractUserFromResultSet(rs);
+                    if (PasswordHasher.needsRehash(hashedPassword)) {
+                        rehashPassword(conn, user, password);
+                    }
+                    return user;
                 }
+            } else {
+                // Spend the same BCrypt time as a real check so unknown usernames do not answer faster
+                PasswordHasher.verifyPassword(password, DummyHash.VALUE);
             }
-        } catch (SQLException e) {
-            System. err.println("Error authenticating user: " + e.getMessage());
         }
 
         return null;
     }
 
 
-    public User findById(int id) {
-        String sql = "SELECT * FROM users WHERE id = ?";
+    private void rehashPassword(Connection conn, User user, String password) {
+        String newHash = PasswordHasher.hashPassword(password);
+
+        try (PreparedStatement stmt = conn.prepareStatement(REHASH_PASSWORD.sql())) {
+            stmt.setString(1, newHash);
+            stmt.setInt(2, user.getId());
+            stmt.executeUpdate();
+            user.setPassword(newHash);
+        } catch (SQLException e) {
+            System.err.println("Error upgrading password hash: " + e.getMessage());
+        }
+    }
+
 
+    public User findById(int id) {
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID.sql())) {
 
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
@@ -57,11 +179,10 @@ public class UserDAO {
 
     public List<User> findAll() {
         List<User> users = new ArrayList<>();
-        String sql = "SELECT * FROM users ORDER BY username";
 
         try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(FIND_ALL.sql());
+             ResultSet rs = stmt.executeQuery()) {
 
             while (rs. next()) {
                 users.add(extractUserFromResultSet(rs));
@@ -75,10 +196,8 @@ public class UserDAO {
 
 
     public void save(User user) {
-        String sql = "INSERT INTO users (username, password_hash, role, first_name, last_name, email) VALUES (?, ?, ?, ?, ?, ?)";
-
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = conn.prepareStatement(SAVE.sql(), Statement.RETURN_GENERATED_KEYS)) {
 
             stmt.setString(1, user. getUsername());
             stmt.setString(2, PasswordHasher.hashPassword(user.getPassword()));
@@ -100,10 +219,8 @@ public class UserDAO {
 
 
     public void update(User user) {
-        String sql = "UPDATE users SET username = ?, role = ?, first_name = ?, last_name = ?, email = ? WHERE id = ?";
-
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(UPDATE.sql())) {
 
             stmt.setString(1, user.getUsername());
             stmt.setString(2, user.getRole().name());
@@ -120,10 +237,8 @@ public class UserDAO {
 
 
     public void delete(int id) {
-        String sql = "DELETE FROM users WHERE id = ? ";
-
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(DELETE.sql())) {
 
             stmt.setInt(1, id);
             stmt.executeUpdate();
@@ -144,4 +259,19 @@ public class UserDAO {
         user.setEmail(rs.getString("email"));
         return user;
     }
+
+
+    // Computed on first use, on an auth thread rather than when the DAO class loads
+    private static final class DummyHash {
+        private static final String VALUE = PasswordHasher.hashPassword("escaperoom-dummy-password");
+    }
+
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "local";
+        }
+    }
 }
\ No newline at end of file
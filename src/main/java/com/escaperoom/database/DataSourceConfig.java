@@ -0,0 +1,130 @@
+package com.escaperoom.database;
+
+import java.util.Properties;
+
+/**
+ * Connection settings, selected by the escaperoom.db.profile system property:
+ * "mysql" (default) targets the MySQL server described in README, "embedded" runs an
+ * in-process H2 database in MySQL compatibility mode and creates the schema on start.
+ * escaperoom.db.url, escaperoom.db.user and escaperoom.db.password override either profile.
+ *
+ * Any escaperoom.db.prop.NAME system property is handed to the driver as connection
+ * property NAME, e.g. -Descaperoom.db.prop.prepStmtCacheSize=500.
+ */
+public class DataSourceConfig {
+
+    public static final String PROFILE_MYSQL = "mysql";
+    public static final String PROFILE_EMBEDDED = "embedded";
+
+    private static final String DRIVER_PROPERTY_PREFIX = "escaperoom.db.prop.";
+
+    private final String profile;
+    private final String url;
+    private final String user;
+    private final String password;
+    private final String driverClassName;
+    private final boolean bootstrapSchema;
+    private final Properties driverProperties;
+
+    public DataSourceConfig(String profile, String url, String user, String password,
+                            String driverClassName, boolean bootstrapSchema) {
+        this(profile, url, user, password, driverClassName, bootstrapSchema, new Properties());
+    }
+
+    public DataSourceConfig(String profile, String url, String user, String password,
+                            String driverClassName, boolean bootstrapSchema, Properties driverProperties) {
+        this.profile = profile;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.driverClassName = driverClassName;
+        this.bootstrapSchema = bootstrapSchema;
+        this.driverProperties = (Properties) driverProperties.clone();
+    }
+
+    public static DataSourceConfig fromSystemProperties() {
+        String profile = System.getProperty("escaperoom.db.profile", PROFILE_MYSQL);
+
+        switch (profile) {
+            case PROFILE_MYSQL:
+                // Every DAO statement has fixed text (see SqlRegistry), so server-side prepares
+                // are parsed once per connection and reused from Connector/J's statement cache
+                Properties mysqlProperties = new Properties();
+                mysqlProperties.setProperty("cachePrepStmts", "true");
+                mysqlProperties.setProperty("useServerPrepStmts", "true");
+                mysqlProperties.setProperty("prepStmtCacheSize", "250");
+                mysqlProperties.setProperty("prepStmtCacheSqlLimit", "2048");
+                return new DataSourceConfig(profile,
+                    System.getProperty("escaperoom.db.url",
+                        "jdbc:mysql://localhost:3306/escape_room_db?rewriteBatchedStatements=true&useCursorFetch=true"),
+                    System.getProperty("escaperoom.db.user", "root"),
+                    System.getProperty("escaperoom.db.password", "root"),
+                    "com.mysql.cj.jdbc.Driver",
+                    false,
+                    withOverrides(mysqlProperties));
+            case PROFILE_EMBEDDED:
+                // In memory by default; set escaperoom.db.embeddedPath to keep the data in a file
+                String path = System.getProperty("escaperoom.db.embeddedPath");
+                String location = path != null ? "file:" + path : "mem:escape_room_db";
+                return new DataSourceConfig(profile,
+                    System.getProperty("escaperoom.db.url",
+                        "jdbc:h2:" + location + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE=64"),
+                    System.getProperty("escaperoom.db.user", "sa"),
+                    System.getProperty("escaperoom.db.password", ""),
+                    "org.h2.Driver",
+                    true,
+                    withOverrides(new Properties()));
+            default:
+                throw new IllegalArgumentException("Unknown database profile: " + profile);
+        }
+    }
+
+    private static Properties withOverrides(Properties defaults) {
+        Properties properties = new Properties();
+        properties.putAll(defaults);
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(DRIVER_PROPERTY_PREFIX) && name.length() > DRIVER_PROPERTY_PREFIX.length()) {
+                properties.setProperty(name.substring(DRIVER_PROPERTY_PREFIX.length()), System.getProperty(name));
+            }
+        }
+        return properties;
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public String getDriverClassName() {
+        return driverClassName;
+    }
+
+    public boolean isBootstrapSchema() {
+        return bootstrapSchema;
+    }
+
+    // Driver settings together with user and password, as passed to DriverManager
+    public Properties getConnectionProperties() {
+        Properties properties = new Properties();
+        properties.putAll(driverProperties);
+        properties.setProperty("user", user);
+        properties.setProperty("password", password);
+        return properties;
+    }
+
+    @Override
+    public String toString() {
+        return profile + " (" + url + ")";
+    }
+}
@@ -1,24 +1,52 @@
 package com.escaperoom.database;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/escape_room_db";
-    private static final String USER = "root";
-    private static final String PASSWORD = "root";
-    
+    private static final int POOL_MIN_SIZE = Integer.getInteger("escaperoom.pool.minSize", 2);
+    private static final int POOL_MAX_SIZE = Integer.getInteger("escaperoom.pool.maxSize", 10);
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("escaperoom.pool.idleTimeoutMs", 300_000L);
+    private static final long POOL_ACQUIRE_TIMEOUT_MS = Long.getLong("escaperoom.pool.acquireTimeoutMs", 10_000L);
+    private static final long POOL_LEAK_THRESHOLD_MS = Long.getLong("escaperoom.pool.leakThresholdMs", 60_000L);
+    private static final int POOL_VALIDATION_TIMEOUT_S = Integer.getInteger("escaperoom.pool.validationTimeoutSec", 2);
+    private static final boolean MIGRATE_ON_START = !"false".equals(System.getProperty("escaperoom.db.migrate"));
 
+    private static volatile ConnectionPool pool;
+
+
+    // Inside a UnitOfWork this is the thread's bound connection; closing it does not end the transaction.
     public static Connection getConnection() throws SQLException {
-        try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            return DriverManager.getConnection(URL, USER, PASSWORD);
-        } catch (ClassNotFoundException e) {
-            throw new SQLException("MySQL JDBC Driver not found", e);
+        Connection bound = UnitOfWork.currentConnection();
+        return bound != null ? bound : getPool().borrow();
+    }
+
+    static Connection borrow() throws SQLException {
+        return getPool().borrow();
+    }
+
+
+    public static int getMaxPoolSize() {
+        return POOL_MAX_SIZE;
+    }
+
+
+    public static PoolStats getPoolStats() {
+        ConnectionPool current = pool;
+        return current != null ? current.getStats() : null;
+    }
+
+
+    public static synchronized void shutdown() {
+        if (pool != null && Boolean.getBoolean("escaperoom.db.metricsDump")) {
+            System.err.print(QueryMetrics.getInstance().dump());
+        }
+        if (pool != null) {
+            pool.close();
+            pool = null;
         }
     }
-    
+
 
     public static boolean testConnection() {
         try (Connection conn = getConnection()) {
@@ -28,4 +56,41 @@ public class DatabaseConnection {
             return false;
         }
     }
+
+
+    private static ConnectionPool getPool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current != null) {
+            return current;
+        }
+        synchronized (DatabaseConnection.class) {
+            if (pool == null) {
+                DataSourceConfig config = DataSourceConfig.fromSystemProperties();
+                try {
+                    Class.forName(config.getDriverClassName());
+                } catch (ClassNotFoundException e) {
+                    throw new SQLException("JDBC driver " + config.getDriverClassName() + " not found", e);
+                }
+                ConnectionPool created = new ConnectionPool(config.getUrl(), config.getConnectionProperties(),
+                    POOL_MIN_SIZE, POOL_MAX_SIZE, POOL_IDLE_TIMEOUT_MS, POOL_ACQUIRE_TIMEOUT_MS,
+                    POOL_LEAK_THRESHOLD_MS, POOL_VALIDATION_TIMEOUT_S);
+                if (config.isBootstrapSchema() || MIGRATE_ON_START) {
+                    try (Connection conn = created.borrow()) {
+                        if (config.isBootstrapSchema()) {
+                            SchemaBootstrap.run(conn);
+                        }
+                        if (MIGRATE_ON_START) {
+                            SchemaMigrator.migrate(conn);
+                        }
+                    } catch (SQLException e) {
+                        created.close();
+                        throw e;
+                    }
+                }
+                pool = created;
+                QueryMetrics.registerMBean();
+            }
+            return pool;
+        }
+    }
 }
@@ -0,0 +1,237 @@
+package com.escaperoom.database;
+
+import com.escaperoom.diagnostics.DaoCallEvent;
+import com.escaperoom.diagnostics.FlightEvents;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Statement wrapper that times every execution and counts the rows it returns or
+ * changes, reporting both to QueryMetrics (and as a DaoCallEvent when Flight
+ * Recorder events are on). Bind values are remembered so the slow-query log can
+ * show them.
+ */
+final class InstrumentedStatement implements InvocationHandler {
+
+    private static final Object[] NO_BINDS = new Object[0];
+
+    private final Statement target;
+    private final Connection connection;
+    private final QueryMetrics.Tracker preparedTracker;
+    private Object[] binds = NO_BINDS;
+    private int bindCount;
+    private RowCounter openResultSet;
+
+    private InstrumentedStatement(Statement target, Connection connection, String sql) {
+        this.target = target;
+        this.connection = connection;
+        this.preparedTracker = sql != null ? QueryMetrics.getInstance().trackerFor(sql) : null;
+    }
+
+    static PreparedStatement wrap(PreparedStatement target, Connection connection, String sql) {
+        return (PreparedStatement) Proxy.newProxyInstance(InstrumentedStatement.class.getClassLoader(),
+            new Class<?>[]{PreparedStatement.class}, new InstrumentedStatement(target, connection, sql));
+    }
+
+    static Statement wrap(Statement target, Connection connection) {
+        return (Statement) Proxy.newProxyInstance(InstrumentedStatement.class.getClassLoader(),
+            new Class<?>[]{Statement.class}, new InstrumentedStatement(target, connection, null));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "executeQuery":
+            case "executeUpdate":
+            case "executeLargeUpdate":
+            case "execute":
+            case "executeBatch":
+            case "executeLargeBatch":
+                return execute(proxy, method, args);
+            case "getResultSet":
+                return countRows(proxy, invokeTarget(method, args), preparedTracker, null);
+            case "clearParameters":
+                binds = NO_BINDS;
+                bindCount = 0;
+                break;
+            case "getConnection":
+                return connection;
+            case "close":
+                flushRows();
+                break;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "InstrumentedStatement[" + target + "]";
+            default:
+                if (preparedTracker != null && name.startsWith("set") && args != null && args.length >= 2
+                        && args[0] instanceof Integer) {
+                    rememberBind((Integer) args[0], "setNull".equals(name) ? null : args[1]);
+                }
+                break;
+        }
+        return invokeTarget(method, args);
+    }
+
+    private Object execute(Object proxy, Method method, Object[] args) throws Throwable {
+        QueryMetrics.Tracker tracker = preparedTracker;
+        if (tracker == null) {
+            tracker = QueryMetrics.getInstance().trackerFor(args != null && args.length > 0 && args[0] instanceof String
+                ? (String) args[0] : "<batch>");
+        }
+
+        flushRows();
+        DaoCallEvent event = FlightEvents.ENABLED ? new DaoCallEvent(callingDaoMethod(), tracker.key()) : null;
+        if (event != null) {
+            event.begin();
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        Object result;
+        try {
+            result = invokeTarget(method, args);
+            failed = false;
+        } finally {
+            QueryMetrics.getInstance().recordExecution(tracker, System.nanoTime() - start, failed, binds, bindCount);
+            if (failed && event != null) {
+                event.failed = true;
+                event.commit();
+            }
+        }
+
+        if (result instanceof ResultSet) {
+            return countRows(proxy, result, tracker, event);
+        }
+        long rows = 0;
+        if (result instanceof Integer || result instanceof Long) {
+            rows = Math.max(0, ((Number) result).longValue());
+        } else if (result instanceof int[]) {
+            for (int count : (int[]) result) {
+                rows += Math.max(0, count);
+            }
+        }
+        QueryMetrics.getInstance().recordRows(tracker, rows);
+        if (event != null) {
+            event.rows = rows;
+            event.commit();
+        }
+        return result;
+    }
+
+    private Object countRows(Object statementProxy, Object resultSet, QueryMetrics.Tracker tracker, DaoCallEvent event) {
+        if (!(resultSet instanceof ResultSet) || tracker == null) {
+            return resultSet;
+        }
+        flushRows();
+        openResultSet = new RowCounter((ResultSet) resultSet, (Statement) statementProxy, tracker, event);
+        return Proxy.newProxyInstance(InstrumentedStatement.class.getClassLoader(),
+            new Class<?>[]{ResultSet.class}, openResultSet);
+    }
+
+    private void flushRows() {
+        if (openResultSet != null) {
+            openResultSet.flush();
+            openResultSet = null;
+        }
+    }
+
+    private static String callingDaoMethod() {
+        return StackWalker.getInstance().walk(frames -> frames
+            .filter(frame -> frame.getClassName().startsWith("com.escaperoom.dao."))
+            .findFirst()
+            .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                + "." + frame.getMethodName())
+            .orElse("<unknown>"));
+    }
+
+    private void rememberBind(int index, Object value) {
+        if (index < 1 || index > 10_000) {
+            return;
+        }
+        if (index > binds.length) {
+            binds = Arrays.copyOf(binds, Math.max(index, binds.length * 2));
+        }
+        binds[index - 1] = value;
+        bindCount = Math.max(bindCount, index);
+    }
+
+    private Object invokeTarget(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class RowCounter implements InvocationHandler {
+        private final ResultSet target;
+        private final Statement statement;
+        private final QueryMetrics.Tracker tracker;
+        private final DaoCallEvent event;
+        private long rows;
+        private boolean flushed;
+
+        private RowCounter(ResultSet target, Statement statement, QueryMetrics.Tracker tracker, DaoCallEvent event) {
+            this.target = target;
+            this.statement = statement;
+            this.tracker = tracker;
+            this.event = event;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next":
+                    Object hasRow = invokeTarget(method, args);
+                    if (Boolean.TRUE.equals(hasRow)) {
+                        rows++;
+                    }
+                    return hasRow;
+                case "close":
+                    flush();
+                    break;
+                case "getStatement":
+                    return statement;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "InstrumentedResultSet[" + target + "]";
+                default:
+                    break;
+            }
+            return invokeTarget(method, args);
+        }
+
+        private void flush() {
+            if (!flushed) {
+                flushed = true;
+                QueryMetrics.getInstance().recordRows(tracker, rows);
+                if (event != null) {
+                    event.rows = rows;
+                    event.commit();
+                }
+            }
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
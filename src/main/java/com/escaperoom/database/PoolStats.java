@@ -0,0 +1,84 @@
+package com.escaperoom.database;
+
+
+public class PoolStats {
+    private final int active;
+    private final int idle;
+    private final int waiting;
+    private final int minSize;
+    private final int maxSize;
+    private final long totalCreated;
+    private final long totalDestroyed;
+    private final long totalBorrows;
+    private final long acquireTimeouts;
+    private final long validationFailures;
+    private final long leaksDetected;
+
+    public PoolStats(int active, int idle, int waiting, int minSize, int maxSize,
+                     long totalCreated, long totalDestroyed, long totalBorrows,
+                     long acquireTimeouts, long validationFailures, long leaksDetected) {
+        this.active = active;
+        this.idle = idle;
+        this.waiting = waiting;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.totalCreated = totalCreated;
+        this.totalDestroyed = totalDestroyed;
+        this.totalBorrows = totalBorrows;
+        this.acquireTimeouts = acquireTimeouts;
+        this.validationFailures = validationFailures;
+        this.leaksDetected = leaksDetected;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getWaiting() {
+        return waiting;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getTotalCreated() {
+        return totalCreated;
+    }
+
+    public long getTotalDestroyed() {
+        return totalDestroyed;
+    }
+
+    public long getTotalBorrows() {
+        return totalBorrows;
+    }
+
+    public long getAcquireTimeouts() {
+        return acquireTimeouts;
+    }
+
+    public long getValidationFailures() {
+        return validationFailures;
+    }
+
+    public long getLeaksDetected() {
+        return leaksDetected;
+    }
+
+    @Override
+    public String toString() {
+        return "active=" + active + ", idle=" + idle + ", waiting=" + waiting
+            + ", max=" + maxSize + ", created=" + totalCreated + ", destroyed=" + totalDestroyed
+            + ", borrows=" + totalBorrows + ", timeouts=" + acquireTimeouts
+            + ", validationFailures=" + validationFailures + ", leaks=" + leaksDetected;
+    }
+}
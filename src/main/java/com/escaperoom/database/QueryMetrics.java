@@ -0,0 +1,332 @@
+package com.escaperoom.database;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Per-statement execution statistics collected by the instrumented statements that
+ * ConnectionPool hands out, plus the time spent waiting for a pooled connection.
+ * Statements are keyed by the name they are registered under (see the DAO layer's
+ * SqlRegistry), otherwise by their SQL text with IN (?, ?, ...) lists collapsed so
+ * batched lookups of different sizes share one entry. Executions slower than the
+ * slow-query threshold are logged to System.err together with their bind values.
+ *
+ * Exposed over JMX as com.escaperoom:type=QueryMetrics; set
+ * -Descaperoom.db.instrumentation=false to hand out the driver's statements unwrapped.
+ */
+public class QueryMetrics implements QueryMetricsMXBean {
+
+    static final boolean ENABLED = !"false".equals(System.getProperty("escaperoom.db.instrumentation"));
+
+    private static final String OBJECT_NAME = "com.escaperoom:type=QueryMetrics";
+    private static final int MAX_TRACKED_STATEMENTS = 500;
+    private static final int MAX_CACHED_SQL = 2_000;
+    private static final int MAX_LOGGED_BINDS = 20;
+    private static final String OTHER_STATEMENTS = "<other statements>";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+
+    private static final QueryMetrics INSTANCE = new QueryMetrics();
+
+    private final Map<String, Tracker> trackers = new ConcurrentHashMap<>();
+    private final Map<String, Tracker> bySql = new ConcurrentHashMap<>();
+    private final Map<String, String> names = new ConcurrentHashMap<>();
+    private final LatencyHistogram acquireTimes = new LatencyHistogram();
+    private volatile long slowQueryThresholdMillis = Long.getLong("escaperoom.db.slowQueryMs", 250L);
+    private volatile boolean registered;
+
+    private QueryMetrics() {
+    }
+
+    public static QueryMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    public static synchronized void registerMBean() {
+        if (INSTANCE.registered) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Registered by another class loader in the same JVM, e.g. a benchmark fork
+        } catch (JMException e) {
+            System.err.println("Error registering query metrics MBean: " + e.getMessage());
+        }
+        INSTANCE.registered = true;
+    }
+
+
+    // Labels a statement with the name it is registered under in the DAO layer.
+    public void nameStatement(String sql, String name) {
+        names.put(normalize(sql), name);
+    }
+
+    Tracker trackerFor(String sql) {
+        Tracker tracker = bySql.get(sql);
+        if (tracker != null) {
+            return tracker;
+        }
+        String normalized = normalize(sql);
+        String name = names.get(normalized);
+        String key = name != null ? name : normalized;
+        if (trackers.size() >= MAX_TRACKED_STATEMENTS && !trackers.containsKey(key)) {
+            key = OTHER_STATEMENTS;
+            name = null;
+            normalized = OTHER_STATEMENTS;
+        }
+        String statementName = name;
+        String statementSql = normalized;
+        tracker = trackers.computeIfAbsent(key, k -> new Tracker(statementName, statementSql));
+        if (bySql.size() < MAX_CACHED_SQL) {
+            bySql.put(sql, tracker);
+        }
+        return tracker;
+    }
+
+    private static String normalize(String sql) {
+        String key = sql.indexOf('\n') >= 0 ? WHITESPACE.matcher(sql.trim()).replaceAll(" ") : sql;
+        if (key.indexOf('?') >= 0 && key.contains(",")) {
+            key = PLACEHOLDER_LIST.matcher(key).replaceAll("?, ...");
+        }
+        return key;
+    }
+
+    void recordAcquire(long nanos) {
+        acquireTimes.record(nanos);
+    }
+
+    void recordExecution(Tracker tracker, long nanos, boolean failed, Object[] binds, int bindCount) {
+        tracker.latency.record(nanos);
+        if (failed) {
+            tracker.errors.increment();
+        }
+        long millis = nanos / 1_000_000;
+        long threshold = slowQueryThresholdMillis;
+        if (threshold >= 0 && millis >= threshold) {
+            tracker.slow.increment();
+            System.err.println("Slow query (" + millis + " ms" + (failed ? ", failed" : "") + "): "
+                + (tracker.name != null ? "[" + tracker.name + "] " : "") + tracker.sql + formatBinds(binds, bindCount));
+        }
+    }
+
+    void recordRows(Tracker tracker, long rows) {
+        tracker.rows.add(rows);
+    }
+
+
+    public List<StatementSnapshot> getStatements() {
+        List<StatementSnapshot> snapshots = new ArrayList<>(trackers.size());
+        for (Tracker tracker : trackers.values()) {
+            snapshots.add(new StatementSnapshot(tracker));
+        }
+        snapshots.sort(Comparator.comparingLong(StatementSnapshot::getTotalMillis).reversed());
+        return snapshots;
+    }
+
+    @Override
+    public long getSlowQueryThresholdMillis() {
+        return slowQueryThresholdMillis;
+    }
+
+    @Override
+    public void setSlowQueryThresholdMillis(long millis) {
+        slowQueryThresholdMillis = millis;
+    }
+
+    @Override
+    public int getTrackedStatements() {
+        return trackers.size();
+    }
+
+    @Override
+    public long getTotalExecutions() {
+        long total = 0;
+        for (Tracker tracker : trackers.values()) {
+            total += tracker.latency.getCount();
+        }
+        return total;
+    }
+
+    @Override
+    public long getConnectionAcquireCount() {
+        return acquireTimes.getCount();
+    }
+
+    @Override
+    public long getConnectionAcquireP50Micros() {
+        return acquireTimes.getPercentileNanos(50) / 1000;
+    }
+
+    @Override
+    public long getConnectionAcquireP99Micros() {
+        return acquireTimes.getPercentileNanos(99) / 1000;
+    }
+
+    @Override
+    public long getConnectionAcquireMaxMicros() {
+        return acquireTimes.getMaxNanos() / 1000;
+    }
+
+    @Override
+    public String getPoolStats() {
+        PoolStats stats = DatabaseConnection.getPoolStats();
+        return stats != null ? stats.toString() : "not started";
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("Connection acquire: n=%d p50=%dus p99=%dus max=%dus%n",
+            getConnectionAcquireCount(), getConnectionAcquireP50Micros(),
+            getConnectionAcquireP99Micros(), getConnectionAcquireMaxMicros()));
+        out.append(String.format("%10s %8s %6s %10s %9s %9s %9s %9s %10s  %s%n",
+            "calls", "errors", "slow", "rows", "mean(us)", "p50(us)", "p99(us)", "max(us)", "total(ms)", "statement"));
+        for (StatementSnapshot s : getStatements()) {
+            out.append(String.format("%10d %8d %6d %10d %9d %9d %9d %9d %10d  %s%n",
+                s.getExecutions(), s.getErrors(), s.getSlowExecutions(), s.getRows(), s.getMeanMicros(),
+                s.getP50Micros(), s.getP99Micros(), s.getMaxMicros(), s.getTotalMillis(),
+                s.getName() != null ? s.getName() : s.getSql()));
+        }
+        return out.toString();
+    }
+
+    @Override
+    public void reset() {
+        trackers.clear();
+        bySql.clear();
+        acquireTimes.reset();
+    }
+
+
+    private static String formatBinds(Object[] binds, int count) {
+        if (binds == null || count == 0) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(" binds=[");
+        for (int i = 0; i < Math.min(count, MAX_LOGGED_BINDS); i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            Object value = binds[i];
+            String text = String.valueOf(value);
+            if (value instanceof String && text.startsWith("$2")) {
+                text = "<hash>";
+            } else if (text.length() > 100) {
+                text = text.substring(0, 100) + "...";
+            }
+            out.append(value instanceof String ? "'" + text + "'" : text);
+        }
+        if (count > MAX_LOGGED_BINDS) {
+            out.append(", ... ").append(count - MAX_LOGGED_BINDS).append(" more");
+        }
+        return out.append(']').toString();
+    }
+
+    static final class Tracker {
+        private final String name;
+        private final String sql;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+
+        private Tracker(String name, String sql) {
+            this.name = name;
+            this.sql = sql;
+        }
+
+        // The registered statement name, or the SQL text for unnamed statements
+        String key() {
+            return name != null ? name : sql;
+        }
+    }
+
+    public static class StatementSnapshot {
+        private final String name;
+        private final String sql;
+        private final long executions;
+        private final long errors;
+        private final long slowExecutions;
+        private final long rows;
+        private final long meanMicros;
+        private final long p50Micros;
+        private final long p95Micros;
+        private final long p99Micros;
+        private final long maxMicros;
+        private final long totalMillis;
+
+        private StatementSnapshot(Tracker tracker) {
+            LatencyHistogram latency = tracker.latency;
+            this.name = tracker.name;
+            this.sql = tracker.sql;
+            this.executions = latency.getCount();
+            this.errors = tracker.errors.sum();
+            this.slowExecutions = tracker.slow.sum();
+            this.rows = tracker.rows.sum();
+            this.meanMicros = latency.getMeanNanos() / 1000;
+            this.p50Micros = latency.getPercentileNanos(50) / 1000;
+            this.p95Micros = latency.getPercentileNanos(95) / 1000;
+            this.p99Micros = latency.getPercentileNanos(99) / 1000;
+            this.maxMicros = latency.getMaxNanos() / 1000;
+            this.totalMillis = latency.getTotalNanos() / 1_000_000;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public long getExecutions() {
+            return executions;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getSlowExecutions() {
+            return slowExecutions;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getMeanMicros() {
+            return meanMicros;
+        }
+
+        public long getP50Micros() {
+            return p50Micros;
+        }
+
+        public long getP95Micros() {
+            return p95Micros;
+        }
+
+        public long getP99Micros() {
+            return p99Micros;
+        }
+
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+
+        public long getTotalMillis() {
+            return totalMillis;
+        }
+    }
+}
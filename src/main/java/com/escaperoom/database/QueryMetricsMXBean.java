@@ -0,0 +1,32 @@
+package com.escaperoom.database;
+
+import java.util.List;
+
+
+public interface QueryMetricsMXBean {
+
+    long getSlowQueryThresholdMillis();
+
+    // A negative threshold turns the slow-query log off
+    void setSlowQueryThresholdMillis(long millis);
+
+    int getTrackedStatements();
+
+    long getTotalExecutions();
+
+    long getConnectionAcquireCount();
+
+    long getConnectionAcquireP50Micros();
+
+    long getConnectionAcquireP99Micros();
+
+    long getConnectionAcquireMaxMicros();
+
+    String getPoolStats();
+
+    List<QueryMetrics.StatementSnapshot> getStatements();
+
+    String dump();
+
+    void reset();
+}
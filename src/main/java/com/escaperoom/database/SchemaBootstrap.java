@@ -0,0 +1,65 @@
+package com.escaperoom.database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs database_schema.sql from the classpath against an embedded database. The
+ * CREATE DATABASE / USE statements are skipped, since the JDBC URL already selects
+ * the database, and nothing is run if the schema is already there.
+ */
+public class SchemaBootstrap {
+
+    private static final String SCHEMA_RESOURCE = "/database_schema.sql";
+
+    public static void run(Connection conn) throws SQLException {
+        if (schemaExists(conn)) {
+            return;
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements(readScript(SCHEMA_RESOURCE))) {
+                if (sql.toUpperCase().startsWith("CREATE DATABASE") || sql.toUpperCase().startsWith("USE ")) {
+                    continue;
+                }
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    // Splits a script on ';' and drops "--" comment lines and empty statements.
+    static List<String> statements(String script) {
+        List<String> statements = new ArrayList<>();
+        for (String statement : script.replaceAll("(?m)^\\s*--.*$", "").split(";")) {
+            String sql = statement.trim();
+            if (!sql.isEmpty()) {
+                statements.add(sql);
+            }
+        }
+        return statements;
+    }
+
+    private static boolean schemaExists(Connection conn) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getTables(conn.getCatalog(), conn.getSchema(), "users", new String[]{"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    static String readScript(String resource) throws SQLException {
+        try (InputStream in = SchemaBootstrap.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new SQLException("Schema script " + resource + " not found on the classpath");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Failed to read schema script: " + e.getMessage(), e);
+        }
+    }
+}
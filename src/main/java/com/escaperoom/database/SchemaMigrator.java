@@ -0,0 +1,153 @@
+package com.escaperoom.database;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies the versioned scripts under /db/migration on the classpath, in the order
+ * of their version numbers, and records each one in the schema_version table so it
+ * runs only once per database. The scripts are listed in /db/migration/migrations.txt
+ * because a classpath directory cannot be listed reliably from inside a jar.
+ *
+ * Script names follow V<version>__<description>.sql. A script that was changed after
+ * it had been applied is reported but not run again; add a new version instead.
+ */
+public class SchemaMigrator {
+
+    private static final String MIGRATION_DIR = "/db/migration/";
+    private static final String MIGRATION_LIST = MIGRATION_DIR + "migrations.txt";
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    // Returns the number of migrations applied.
+    public static int migrate(Connection conn) throws SQLException {
+        createVersionTable(conn);
+        Map<Integer, Long> applied = appliedVersions(conn);
+
+        int count = 0;
+        for (Migration migration : migrations()) {
+            Long checksum = applied.get(migration.version);
+            if (checksum != null) {
+                if (checksum != migration.checksum) {
+                    System.err.println("Warning: migration " + migration.script + " changed after it was applied");
+                }
+                continue;
+            }
+            apply(conn, migration);
+            count++;
+        }
+        return count;
+    }
+
+    private static void createVersionTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                + "version INT PRIMARY KEY, "
+                + "description VARCHAR(200) NOT NULL, "
+                + "script VARCHAR(200) NOT NULL, "
+                + "checksum BIGINT NOT NULL, "
+                + "execution_ms INT NOT NULL, "
+                + "installed_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        }
+    }
+
+    private static Map<Integer, Long> appliedVersions(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getLong("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    // MySQL commits DDL implicitly, so a script that fails half way may leave its
+    // earlier statements applied; it is not recorded and reports which statement failed.
+    private static void apply(Connection conn, Migration migration) throws SQLException {
+        long start = System.currentTimeMillis();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : SchemaBootstrap.statements(migration.body)) {
+                    try {
+                        stmt.execute(sql);
+                    } catch (SQLException e) {
+                        throw new SQLException("Migration " + migration.script + " failed at: " + sql
+                            + " (" + e.getMessage() + ")", e.getSQLState(), e);
+                    }
+                }
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description, script, checksum, execution_ms) VALUES (?, ?, ?, ?, ?)")) {
+                stmt.setInt(1, migration.version);
+                stmt.setString(2, migration.description);
+                stmt.setString(3, migration.script);
+                stmt.setLong(4, migration.checksum);
+                stmt.setInt(5, (int) (System.currentTimeMillis() - start));
+                stmt.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        System.err.println("Applied migration " + migration.script + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private static List<Migration> migrations() throws SQLException {
+        List<Migration> migrations = new ArrayList<>();
+        for (String line : SchemaBootstrap.readScript(MIGRATION_LIST).split("\\R")) {
+            String script = line.trim();
+            if (script.isEmpty() || script.startsWith("#")) {
+                continue;
+            }
+            Matcher name = SCRIPT_NAME.matcher(script);
+            if (!name.matches()) {
+                throw new SQLException("Invalid migration script name: " + script);
+            }
+            String body = SchemaBootstrap.readScript(MIGRATION_DIR + script);
+            migrations.add(new Migration(Integer.parseInt(name.group(1)), name.group(2).replace('_', ' '), script, body));
+        }
+
+        migrations.sort((a, b) -> Integer.compare(a.version, b.version));
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version == migrations.get(i - 1).version) {
+                throw new SQLException("Duplicate migration version " + migrations.get(i).version);
+            }
+        }
+        return migrations;
+    }
+
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final String script;
+        private final String body;
+        private final long checksum;
+
+        private Migration(int version, String description, String script, String body) {
+            this.version = version;
+            this.description = description;
+            this.script = script;
+            this.body = body;
+            CRC32 crc = new CRC32();
+            crc.update(body.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+            this.checksum = crc.getValue();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.escaperoom.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs several DAO calls in one transaction on one pooled connection. While a unit of
+ * work is active, DatabaseConnection.getConnection on the same thread hands out the
+ * bound connection wrapped so that the DAOs' own close, setAutoCommit and commit calls
+ * do nothing; the unit commits once when the outermost execute returns.
+ *
+ * A DAO that rolls back, or any statement that fails on the bound connection, marks the
+ * unit rollback-only: the DAOs log and swallow their errors, so execute rolls back and
+ * throws instead of committing the calls that did succeed. Nested execute calls join
+ * the outer unit. Cache updates and other side effects that must not outlive a
+ * rollback are registered with afterCommit.
+ */
+public final class UnitOfWork {
+
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private final Connection connection;
+    private final Connection participant;
+    private final List<Runnable> afterCommit = new ArrayList<>();
+    private boolean rollbackOnly;
+    private SQLException failure;
+    private volatile boolean finished;
+
+    public interface Work<T> {
+        T execute() throws SQLException;
+    }
+
+    public interface Action {
+        void execute() throws SQLException;
+    }
+
+    private UnitOfWork(Connection connection) {
+        this.connection = connection;
+        this.participant = (Connection) Proxy.newProxyInstance(
+            UnitOfWork.class.getClassLoader(),
+            new Class<?>[]{Connection.class},
+            new Participant());
+    }
+
+    public static <T> T execute(Work<T> work) throws SQLException {
+        UnitOfWork current = CURRENT.get();
+        if (current != null) {
+            try {
+                return work.execute();
+            } catch (SQLException | RuntimeException e) {
+                current.rollbackOnly = true;
+                throw e;
+            }
+        }
+
+        try (Connection conn = DatabaseConnection.borrow()) {
+            conn.setAutoCommit(false);
+            UnitOfWork unit = new UnitOfWork(conn);
+            CURRENT.set(unit);
+            T result;
+            try {
+                result = work.execute();
+                if (unit.rollbackOnly) {
+                    throw unit.rollbackOnlyException();
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                CURRENT.remove();
+                unit.finished = true;
+                conn.setAutoCommit(true);
+            }
+            unit.runAfterCommit();
+            return result;
+        }
+    }
+
+    public static void run(Action action) throws SQLException {
+        execute(() -> {
+            action.execute();
+            return null;
+        });
+    }
+
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    public static void setRollbackOnly() {
+        UnitOfWork current = CURRENT.get();
+        if (current != null) {
+            current.rollbackOnly = true;
+        }
+    }
+
+    // Runs the callback once the current unit commits, or right away outside a unit of work.
+    public static void afterCommit(Runnable callback) {
+        UnitOfWork current = CURRENT.get();
+        if (current != null) {
+            current.afterCommit.add(callback);
+        } else {
+            callback.run();
+        }
+    }
+
+    // The bound connection as handed to the DAOs, or null outside a unit of work.
+    static Connection currentConnection() {
+        UnitOfWork current = CURRENT.get();
+        return current != null ? current.participant : null;
+    }
+
+
+    private void runAfterCommit() {
+        for (Runnable callback : afterCommit) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error running after-commit callback: " + e.getMessage());
+            }
+        }
+    }
+
+    // Carries the first statement failure, which the DAO that hit it has already logged and swallowed.
+    private SQLException rollbackOnlyException() {
+        if (failure == null) {
+            return new SQLException("Unit of work rolled back: it was marked rollback-only");
+        }
+        return new SQLException("Unit of work rolled back: " + failure.getMessage(), failure.getSQLState(),
+            failure.getErrorCode(), failure);
+    }
+
+    private Object invokeMarkingFailures(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException) {
+                rollbackOnly = true;
+                if (failure == null) {
+                    failure = (SQLException) e.getCause();
+                }
+            }
+            throw e.getCause();
+        }
+    }
+
+    private final class Participant implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                case "commit":
+                case "setAutoCommit":
+                    return null;
+                case "getAutoCommit":
+                    return false;
+                case "rollback":
+                    if (args == null) {
+                        rollbackOnly = true;
+                        return null;
+                    }
+                    break;
+                case "isClosed":
+                    return finished || connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "UnitOfWork[" + connection + "]";
+                default:
+                    break;
+            }
+
+            if (finished) {
+                throw new SQLException("Unit of work has already ended");
+            }
+            Object result = invokeMarkingFailures(connection, method, args);
+            if (result instanceof Statement) {
+                return wrapStatement((Statement) result, method.getReturnType());
+            }
+            return result;
+        }
+    }
+
+    private Object wrapStatement(Statement statement, Class<?> type) {
+        return Proxy.newProxyInstance(
+            UnitOfWork.class.getClassLoader(),
+            new Class<?>[]{type},
+            (proxy, method, args) -> {
+                if ("getConnection".equals(method.getName())) {
+                    return participant;
+                }
+                return invokeMarkingFailures(statement, method, args);
+            });
+    }
+}
@@ -0,0 +1,33 @@
+package com.escaperoom.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("com.escaperoom.DaoCall")
+@Label("DAO Call")
+@Category({"Escape Room", "Database"})
+@Description("One statement execution, including reading its result set")
+public class DaoCallEvent extends Event {
+
+    @Label("Method")
+    @Description("DAO method that ran the statement")
+    public String method;
+
+    @Label("SQL")
+    public String sql;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Failed")
+    public boolean failed;
+
+    public DaoCallEvent(String method, String sql) {
+        this.method = method;
+        this.sql = sql;
+    }
+}
@@ -0,0 +1,15 @@
+package com.escaperoom.diagnostics;
+
+/**
+ * Switch for the application's JDK Flight Recorder events. They are only created when
+ * the JVM is started with -Descaperoom.jfr=true, so terminals without the flag pay
+ * nothing; with it, start a recording as usual (-XX:StartFlightRecording or jcmd) and
+ * the events show up under the "Escape Room" category.
+ */
+public final class FlightEvents {
+
+    public static final boolean ENABLED = Boolean.getBoolean("escaperoom.jfr");
+
+    private FlightEvents() {
+    }
+}
@@ -0,0 +1,34 @@
+package com.escaperoom.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("com.escaperoom.PdfExport")
+@Label("PDF Export")
+@Category({"Escape Room", "Reports"})
+public class PdfExportEvent extends Event {
+
+    @Label("Title")
+    public String title;
+
+    @Label("Pages")
+    public int pages;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Completed")
+    public boolean completed;
+
+    public PdfExportEvent(String title) {
+        this.title = title;
+    }
+}
@@ -0,0 +1,30 @@
+package com.escaperoom.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("com.escaperoom.ViewLoad")
+@Label("View Load")
+@Category({"Escape Room", "UI"})
+@Description("Background data load of a screen, from submission until the result is shown")
+public class ViewLoadEvent extends Event {
+
+    @Label("View")
+    public String view;
+
+    @Label("Load")
+    public String load;
+
+    @Label("Outcome")
+    @Description("succeeded, failed or cancelled")
+    public String outcome;
+
+    public ViewLoadEvent(String view, String load) {
+        this.view = view;
+        this.load = load;
+    }
+}
@@ -0,0 +1,41 @@
+package com.escaperoom.models;
+
+import java.time.LocalDateTime;
+
+
+public class DashboardStats {
+    private final int totalRooms;
+    private final int bookingsToday;
+    private final double revenueThisMonth;
+    private final int totalPlayers;
+    private final LocalDateTime loadedAt;
+    
+    public DashboardStats(int totalRooms, int bookingsToday, double revenueThisMonth,
+                          int totalPlayers, LocalDateTime loadedAt) {
+        this.totalRooms = totalRooms;
+        this.bookingsToday = bookingsToday;
+        this.revenueThisMonth = revenueThisMonth;
+        this.totalPlayers = totalPlayers;
+        this.loadedAt = loadedAt;
+    }
+    
+    public int getTotalRooms() {
+        return totalRooms;
+    }
+    
+    public int getBookingsToday() {
+        return bookingsToday;
+    }
+    
+    public double getRevenueThisMonth() {
+        return revenueThisMonth;
+    }
+    
+    public int getTotalPlayers() {
+        return totalPlayers;
+    }
+    
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+}
@@ -34,6 +34,11 @@ public class Player {
         this.totalHintsUsed = totalHintsUsed;
         this.registrationDate = registrationDate;
     }
+
+    public Player copy() {
+        return new Player(id, firstName, lastName, email, phone, totalGamesPlayed, gamesWon, gamesLost,
+            averageTime, totalHintsUsed, registrationDate);
+    }
     
     // racunanje winrate
     public double getWinRate() {
@@ -33,6 +33,10 @@ public class Room implements Bookable {
         this.averageRating = averageRating;
     }
 
+    public Room copy() {
+        return new Room(id, name, theme, difficulty, capacity, price, duration, description, isActive, averageRating);
+    }
+
     @Override
     public boolean isAvailable(LocalDateTime dateTime) {
         // provjerava se u dao
@@ -0,0 +1,326 @@
+package com.escaperoom.tools;
+
+import com.escaperoom.dao.GameSessionDAO;
+import com.escaperoom.dao.RoomDAO;
+import com.escaperoom.database.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills the configured database with synthetic players, bookings (with their players)
+ * and game sessions for load and performance testing. Bookings are laid out back to back
+ * per room so they never overlap each other; about 80% lie in the past and are COMPLETED or
+ * CANCELLED, the rest are upcoming. Every completed booking gets a session until the
+ * session budget runs out, any remaining sessions are walk-ins. Rows are written in
+ * JDBC batches and committed every CHUNK_SIZE bookings.
+ *
+ * Usage: SyntheticDataGenerator [--players N] [--bookings N] [--sessions N] [--seed N]
+ * Combine with -Descaperoom.db.profile=embedded to run without a MySQL server.
+ */
+public class SyntheticDataGenerator {
+
+    private static final int CHUNK_SIZE = 5_000;
+    private static final int SLOT_GAP_MINUTES = 30;
+
+    private static final String[] FIRST_NAMES = {
+        "Amar", "Emina", "Adnan", "Lejla", "Haris", "Amila", "Tarik", "Selma", "Kenan", "Ajla",
+        "John", "Jane", "Mike", "Sarah", "David", "Anna", "Mirza", "Dalila", "Faruk", "Ema"
+    };
+    private static final String[] LAST_NAMES = {
+        "Hodžić", "Begić", "Delić", "Kovačević", "Hadžić", "Mehić", "Smith", "Johnson", "Brown", "Williams",
+        "Alić", "Dajić", "Husić", "Omerović", "Ibrahimović", "Jones", "Miller", "Davis", "Wilson", "Taylor"
+    };
+
+    private final Random random;
+    private final String runTag;
+    private final List<Room> rooms = new ArrayList<>();
+    private int[] playerIds = new int[0];
+
+    public SyntheticDataGenerator(long seed) {
+        this.random = new Random(seed);
+        this.runTag = Long.toString(System.currentTimeMillis(), 36);
+    }
+
+    public static void main(String[] args) throws SQLException {
+        int players = 10_000;
+        int bookings = 100_000;
+        int sessions = -1;
+        long seed = 42;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--players": players = Integer.parseInt(args[i + 1]); break;
+                case "--bookings": bookings = Integer.parseInt(args[i + 1]); break;
+                case "--sessions": sessions = Integer.parseInt(args[i + 1]); break;
+                case "--seed": seed = Long.parseLong(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (sessions < 0) {
+            sessions = (int) (bookings * 0.7);
+        }
+
+        try {
+            long start = System.currentTimeMillis();
+            new SyntheticDataGenerator(seed).generate(players, bookings, sessions);
+            System.out.println("Generated " + players + " players, " + bookings + " bookings and " + sessions +
+                               " sessions in " + (System.currentTimeMillis() - start) + " ms");
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+    }
+
+
+    public void generate(int players, int bookings, int sessions) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                loadRooms(conn);
+                insertPlayers(conn, players);
+                int remaining = insertBookings(conn, bookings, sessions);
+                insertWalkInSessions(conn, remaining);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        new GameSessionDAO().rebuildRevenueRollup();
+        new RoomDAO().reconcileRatings();
+    }
+
+
+    private void loadRooms(Connection conn) throws SQLException {
+        String sql = "SELECT id, capacity, price, duration FROM rooms WHERE is_active = TRUE ORDER BY id";
+
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                rooms.add(new Room(rs.getInt("id"), rs.getInt("capacity"), rs.getDouble("price"), rs.getInt("duration")));
+            }
+        }
+        if (rooms.isEmpty()) {
+            throw new SQLException("No active rooms to generate bookings for");
+        }
+    }
+
+
+    private void insertPlayers(Connection conn, int count) throws SQLException {
+        String sql = "INSERT INTO players (first_name, last_name, email, phone, total_games_played, games_won, games_lost, average_time, total_hints_used) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < count; i++) {
+                String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                int played = random.nextInt(40);
+                int won = played == 0 ? 0 : random.nextInt(played + 1);
+                stmt.setString(1, firstName);
+                stmt.setString(2, LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                stmt.setString(3, firstName.toLowerCase() + "." + runTag + "." + i + "@example.com");
+                stmt.setString(4, "06" + (1000000 + random.nextInt(9000000)));
+                stmt.setInt(5, played);
+                stmt.setInt(6, won);
+                stmt.setInt(7, played - won);
+                stmt.setDouble(8, played == 0 ? 0 : 40 + random.nextInt(30));
+                stmt.setInt(9, random.nextInt(3 * played + 1));
+                stmt.addBatch();
+
+                if (i % CHUNK_SIZE == CHUNK_SIZE - 1 || i == count - 1) {
+                    stmt.executeBatch();
+                    conn.commit();
+                }
+            }
+        }
+
+        loadPlayerIds(conn);
+    }
+
+
+    // Existing players take part in the generated bookings as well
+    private void loadPlayerIds(Connection conn) throws SQLException {
+        int[] ids = new int[1024];
+        int count = 0;
+
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id FROM players ORDER BY id")) {
+            while (rs.next()) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = rs.getInt(1);
+            }
+        }
+        playerIds = Arrays.copyOf(ids, count);
+    }
+
+
+    // Returns the part of the session budget that was not used up by completed bookings.
+    private int insertBookings(Connection conn, int count, int sessions) throws SQLException {
+        String bookingSql = "INSERT INTO bookings (room_id, scheduled_time, status, number_of_players, total_price, notes) VALUES (?, ?, ?, ?, ?, ?)";
+        String playerSql = "INSERT INTO booking_players (booking_id, player_id) VALUES (?, ?)";
+        String sessionSql = "INSERT INTO game_sessions (booking_id, room_id, start_time, end_time, completed, time_spent, hints_used, rating, review, revenue) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        int slotsPerRoom = (count + rooms.size() - 1) / rooms.size();
+        LocalDateTime[] origins = new LocalDateTime[rooms.size()];
+        for (int r = 0; r < rooms.size(); r++) {
+            origins[r] = now.minusMinutes((long) (slotsPerRoom * 0.8) * slotMinutes(rooms.get(r)));
+        }
+
+        int remaining = sessions;
+        List<PendingBooking> chunk = new ArrayList<>(CHUNK_SIZE);
+        int[] ids = new int[CHUNK_SIZE];
+
+        try (PreparedStatement bookingStmt = conn.prepareStatement(bookingSql, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement playerStmt = conn.prepareStatement(playerSql);
+             PreparedStatement sessionStmt = conn.prepareStatement(sessionSql)) {
+            for (int i = 0; i < count; i++) {
+                int roomIndex = i % rooms.size();
+                Room room = rooms.get(roomIndex);
+                LocalDateTime time = origins[roomIndex].plusMinutes((long) (i / rooms.size()) * slotMinutes(room));
+                String status = time.isBefore(now)
+                    ? (random.nextInt(10) == 0 ? "CANCELLED" : "COMPLETED")
+                    : (random.nextBoolean() ? "CONFIRMED" : "PENDING");
+                int size = Math.min(room.capacity, 2 + random.nextInt(5));
+
+                PendingBooking booking = new PendingBooking(room, time, status, size);
+                bookingStmt.setInt(1, room.id);
+                bookingStmt.setTimestamp(2, Timestamp.valueOf(time));
+                bookingStmt.setString(3, status);
+                bookingStmt.setInt(4, size);
+                bookingStmt.setDouble(5, room.price);
+                bookingStmt.setString(6, null);
+                bookingStmt.addBatch();
+                chunk.add(booking);
+
+                if (chunk.size() == CHUNK_SIZE || i == count - 1) {
+                    bookingStmt.executeBatch();
+                    readKeys(bookingStmt, ids);
+
+                    for (int b = 0; b < chunk.size(); b++) {
+                        PendingBooking pending = chunk.get(b);
+                        addBookingPlayers(playerStmt, ids[b], pending.size);
+                        if (remaining > 0 && "COMPLETED".equals(pending.status)) {
+                            addSession(sessionStmt, ids[b], pending.room, pending.time);
+                            remaining--;
+                        }
+                    }
+                    playerStmt.executeBatch();
+                    sessionStmt.executeBatch();
+                    conn.commit();
+                    chunk.clear();
+                }
+            }
+        }
+        return remaining;
+    }
+
+
+    private void insertWalkInSessions(Connection conn, int count) throws SQLException {
+        String sql = "INSERT INTO game_sessions (booking_id, room_id, start_time, end_time, completed, time_spent, hints_used, rating, review, revenue) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < count; i++) {
+                Room room = rooms.get(random.nextInt(rooms.size()));
+                addSession(stmt, 0, room, now.minusMinutes(30L * (1 + random.nextInt(2 * 365 * 48))));
+
+                if (i % CHUNK_SIZE == CHUNK_SIZE - 1 || i == count - 1) {
+                    stmt.executeBatch();
+                    conn.commit();
+                }
+            }
+        }
+    }
+
+
+    private void addBookingPlayers(PreparedStatement stmt, int bookingId, int size) throws SQLException {
+        if (playerIds.length == 0) {
+            return;
+        }
+        int first = random.nextInt(playerIds.length);
+        // A run of consecutive players is distinct without needing a lookup set
+        for (int p = 0; p < Math.min(size, playerIds.length); p++) {
+            stmt.setInt(1, bookingId);
+            stmt.setInt(2, playerIds[(first + p) % playerIds.length]);
+            stmt.addBatch();
+        }
+    }
+
+
+    private void addSession(PreparedStatement stmt, int bookingId, Room room, LocalDateTime start) throws SQLException {
+        boolean completed = random.nextInt(4) != 0;
+        int timeSpent = completed ? room.duration / 2 + random.nextInt(room.duration / 2 + 1) : room.duration;
+
+        if (bookingId > 0) {
+            stmt.setInt(1, bookingId);
+        } else {
+            stmt.setNull(1, Types.INTEGER);
+        }
+        stmt.setInt(2, room.id);
+        stmt.setTimestamp(3, Timestamp.valueOf(start));
+        stmt.setTimestamp(4, Timestamp.valueOf(start.plusMinutes(timeSpent)));
+        stmt.setBoolean(5, completed);
+        stmt.setInt(6, timeSpent);
+        stmt.setInt(7, random.nextInt(5));
+        stmt.setInt(8, 1 + random.nextInt(5));
+        stmt.setString(9, null);
+        stmt.setDouble(10, room.price);
+        stmt.addBatch();
+    }
+
+
+    private static void readKeys(Statement stmt, int[] ids) throws SQLException {
+        int index = 0;
+        try (ResultSet keys = stmt.getGeneratedKeys()) {
+            while (keys.next()) {
+                ids[index++] = keys.getInt(1);
+            }
+        }
+    }
+
+
+    private static long slotMinutes(Room room) {
+        return room.duration + SLOT_GAP_MINUTES;
+    }
+
+    private static final class Room {
+        private final int id;
+        private final int capacity;
+        private final double price;
+        private final int duration;
+
+        private Room(int id, int capacity, double price, int duration) {
+            this.id = id;
+            this.capacity = capacity;
+            this.price = price;
+            this.duration = duration;
+        }
+    }
+
+    private static final class PendingBooking {
+        private final Room room;
+        private final LocalDateTime time;
+        private final String status;
+        private final int size;
+
+        private PendingBooking(Room room, LocalDateTime time, String status, int size) {
+            this.room = room;
+            this.time = time;
+            this.status = status;
+            this.size = size;
+        }
+    }
+}
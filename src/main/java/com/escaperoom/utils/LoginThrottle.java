@@ -0,0 +1,128 @@
+package com.escaperoom.utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Failed-login limiter. Each key (a username or a terminal) gets a number of free
+ * attempts, after which every further failure doubles the lockout, up to a cap.
+ * A successful login clears the key; idle keys are forgotten after the reset window.
+ */
+public class LoginThrottle {
+
+    private static final int MAX_TRACKED_KEYS = 10_000;
+
+    private final int freeAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long resetAfterMillis;
+    private final ConcurrentMap<String, Attempts> attempts = new ConcurrentHashMap<>();
+
+    public LoginThrottle(int freeAttempts, long baseDelayMillis, long maxDelayMillis, long resetAfterMillis) {
+        this.freeAttempts = freeAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.resetAfterMillis = resetAfterMillis;
+    }
+
+    // Milliseconds the key is still locked out for, 0 when an attempt is allowed.
+    public long remainingLockout(String key) {
+        Attempts entry = attempts.get(key);
+        if (entry == null) {
+            return 0;
+        }
+        return Math.max(0, entry.lockedUntil - System.currentTimeMillis());
+    }
+
+    /**
+     * Reserves an attempt for the key, returning 0, or the milliseconds to wait when it is
+     * locked out. Attempts in flight count against the free ones, so parallel logins cannot
+     * run past the limit. Every reservation must end in recordFailure, recordSuccess or
+     * release.
+     */
+    public long tryAcquire(String key) {
+        long now = System.currentTimeMillis();
+        evictIdle(now);
+        long[] wait = new long[1];
+        attempts.compute(key, (k, entry) -> {
+            if (entry == null || entry.isIdle(now, resetAfterMillis)) {
+                return new Attempts(0, now, now, 1);
+            }
+            if (entry.lockedUntil > now) {
+                wait[0] = entry.lockedUntil - now;
+                return entry;
+            }
+            if (entry.inFlight > 0 && entry.failures + entry.inFlight >= freeAttempts) {
+                // Past the free attempts only one login at a time is let through
+                wait[0] = baseDelayMillis;
+                return entry;
+            }
+            return new Attempts(entry.failures, entry.lastFailure, entry.lockedUntil, entry.inFlight + 1);
+        });
+        return wait[0];
+    }
+
+    public void recordFailure(String key) {
+        long now = System.currentTimeMillis();
+        evictIdle(now);
+        attempts.compute(key, (k, entry) -> {
+            int inFlight = entry == null ? 0 : Math.max(0, entry.inFlight - 1);
+            int failures = entry == null || now - entry.lastFailure > resetAfterMillis ? 1 : entry.failures + 1;
+            long lockedUntil = now;
+            if (failures > freeAttempts) {
+                int doublings = Math.min(failures - freeAttempts - 1, 30);
+                lockedUntil = now + Math.min(maxDelayMillis, baseDelayMillis << doublings);
+            }
+            return new Attempts(failures, now, lockedUntil, inFlight);
+        });
+    }
+
+    public void recordSuccess(String key) {
+        attempts.remove(key);
+    }
+
+    // Gives back a reservation whose attempt never reached a verdict, e.g. after a database error.
+    public void release(String key) {
+        attempts.computeIfPresent(key, (k, entry) -> entry.inFlight == 0 ? entry
+            : new Attempts(entry.failures, entry.lastFailure, entry.lockedUntil, entry.inFlight - 1));
+    }
+
+    private void evictIdle(long now) {
+        if (attempts.size() >= MAX_TRACKED_KEYS) {
+            attempts.values().removeIf(entry -> entry.isIdle(now, resetAfterMillis));
+        }
+    }
+
+    private static final class Attempts {
+        private final int failures;
+        private final long lastFailure;
+        private final long lockedUntil;
+        private final int inFlight;
+
+        private Attempts(int failures, long lastFailure, long lockedUntil, int inFlight) {
+            this.failures = failures;
+            this.lastFailure = lastFailure;
+            this.lockedUntil = lockedUntil;
+            this.inFlight = inFlight;
+        }
+
+        private boolean isIdle(long now, long resetAfterMillis) {
+            return inFlight == 0 && now - lastFailure > resetAfterMillis;
+        }
+    }
+
+    public static class ThrottledException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final long retryAfterMillis;
+
+        public ThrottledException(long retryAfterMillis) {
+            super("Too many failed login attempts. Try again in " + Math.max(1, (retryAfterMillis + 999) / 1000) + " seconds.");
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        public long getRetryAfterMillis() {
+            return retryAfterMillis;
+        }
+    }
+}
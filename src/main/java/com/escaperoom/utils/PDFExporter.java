@@ -1,24 +1,40 @@
 package com.escaperoom.utils;
 
+import com.escaperoom.diagnostics.FlightEvents;
+import com.escaperoom.diagnostics.PdfExportEvent;
 import com.escaperoom.interfaces.Exportable;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 
+import java.io.File;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
 
 
 public class PDFExporter implements Exportable {
     
+    // Page content beyond this much heap is buffered in a PDFBox scratch file
+    private static final long MAIN_MEMORY_BYTES = Long.getLong("escaperoom.pdf.memoryBytes", 8L * 1024 * 1024);
+    
     private String reportTitle;
     private String reportContent;
     private List<String[]> tableData;
     private String[] tableHeaders;
+    private Iterator<String[]> rowSource;
+    private long totalRows = -1;
+    private ProgressListener progressListener;
+    
+    public interface ProgressListener {
+        // totalRows is -1 when the row count is not known up front
+        void onProgress(long rowsWritten, long totalRows);
+    }
     
     public PDFExporter(String reportTitle, String reportContent) {
         this.reportTitle = reportTitle;
@@ -31,9 +47,29 @@ public class PDFExporter implements Exportable {
         this.tableData = tableData;
     }
     
+    // Streaming mode: rows are consumed once, as they are written, so the caller can feed a DAO cursor.
+    public PDFExporter(String reportTitle, String[] tableHeaders, Iterator<String[]> rows, long totalRows) {
+        this.reportTitle = reportTitle;
+        this.tableHeaders = tableHeaders;
+        this.rowSource = rows;
+        this.totalRows = totalRows;
+    }
+    
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+    
     @Override
     public void exportToPDF(String filePath) {
-        try (PDDocument document = new PDDocument()) {
+        Iterator<String[]> rows = tableData != null ? tableData.iterator() : rowSource;
+        long total = tableData != null ? tableData.size() : totalRows;
+        long rowsWritten = 0;
+        PdfExportEvent event = FlightEvents.ENABLED ? new PdfExportEvent(reportTitle) : null;
+        if (event != null) {
+            event.begin();
+        }
+        
+        try (PDDocument document = new PDDocument(MemoryUsageSetting.setupMixed(MAIN_MEMORY_BYTES))) {
             PDPage page = new PDPage(PDRectangle.A4);
             document.addPage(page);
             
@@ -93,7 +129,7 @@ public class PDFExporter implements Exportable {
             }
             
             // Table data
-            if (tableHeaders != null && tableData != null) {
+            if (tableHeaders != null && rows != null) {
                 yPosition -= 20;
                 
                 // Headers
@@ -114,12 +150,15 @@ public class PDFExporter implements Exportable {
                 
                 // Data rows
                 contentStream.setFont(PDType1Font.HELVETICA, 9);
-                for (String[] row : tableData) {
+                while (rows.hasNext()) {
+                    String[] row = rows.next();
                     if (yPosition < margin + 50) {
                         contentStream.close();
+                        reportProgress(rowsWritten, total);
                         page = new PDPage(PDRectangle.A4);
                         document.addPage(page);
                         contentStream = new PDPageContentStream(document, page);
+                        contentStream.setFont(PDType1Font.HELVETICA, 9);
                         yPosition = page.getMediaBox().getHeight() - margin;
                     }
                     
@@ -128,6 +167,7 @@ public class PDFExporter implements Exportable {
                     contentStream.showText(String.join(" | ", row));
                     contentStream.endText();
                     yPosition -= 12;
+                    rowsWritten++;
                 }
             }
             
@@ -140,9 +180,26 @@ public class PDFExporter implements Exportable {
             
             contentStream.close();
             document.save(filePath);
+            reportProgress(rowsWritten, total);
             
+            if (event != null) {
+                event.pages = document.getNumberOfPages();
+                event.bytes = new File(filePath).length();
+                event.completed = true;
+            }
         } catch (IOException e) {
             throw new RuntimeException("Failed to export PDF: " + e.getMessage(), e);
+        } finally {
+            if (event != null) {
+                event.rows = rowsWritten;
+                event.commit();
+            }
+        }
+    }
+    
+    private void reportProgress(long rowsWritten, long total) {
+        if (progressListener != null) {
+            progressListener.onProgress(rowsWritten, total);
         }
     }
     
@@ -5,8 +5,11 @@ import org.mindrot.jbcrypt.BCrypt;
 
 public class PasswordHasher {
 
+    // BCrypt work factor for new hashes; stored hashes with a lower cost are upgraded on login
+    private static final int COST = Integer.getInteger("escaperoom.bcrypt.cost", 10);
+
     public static String hashPassword(String plainTextPassword) {
-        return BCrypt.hashpw(plainTextPassword, BCrypt.gensalt(10));
+        return BCrypt.hashpw(plainTextPassword, BCrypt.gensalt(COST));
     }
     
 
@@ -17,4 +20,17 @@ public class PasswordHasher {
             return false;
         }
     }
+
+
+    // Hashes look like $2a$10$<salt+hash>; the two digits are the cost
+    public static boolean needsRehash(String hashedPassword) {
+        if (hashedPassword == null || hashedPassword.length() < 7 || hashedPassword.charAt(0) != '$') {
+            return true;
+        }
+        try {
+            return Integer.parseInt(hashedPassword.substring(4, 6)) < COST;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
 }
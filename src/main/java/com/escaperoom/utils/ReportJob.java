@@ -0,0 +1,80 @@
+package com.escaperoom.utils;
+
+import javafx.concurrent.Task;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CancellationException;
+
+/**
+ * One report export running on a ReportJobManager worker. The report is written to a
+ * ".part" file next to the target and only moved into place once it is complete, so a
+ * cancelled or failed job never leaves a truncated PDF behind.
+ */
+public class ReportJob extends Task<File> {
+
+    public interface Work {
+        void export(String filePath, PDFExporter.ProgressListener progress) throws Exception;
+    }
+
+    private final String name;
+    private final File target;
+    private final Work work;
+
+    ReportJob(String name, File target, Work work) {
+        this.name = name;
+        this.target = target;
+        this.work = work;
+        updateTitle(name);
+        updateMessage("Queued");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public File getTarget() {
+        return target;
+    }
+
+    @Override
+    protected File call() throws Exception {
+        File partial = new File(target.getPath() + ".part");
+        updateMessage("Running");
+        try {
+            work.export(partial.getPath(), (rowsWritten, totalRows) -> {
+                // Called once per rendered page; the cheapest place to honour a cancel request
+                if (isCancelled()) {
+                    throw new CancellationException();
+                }
+                if (totalRows > 0) {
+                    updateProgress(rowsWritten, totalRows);
+                    updateMessage(rowsWritten + " / " + totalRows + " rows");
+                } else {
+                    updateMessage(rowsWritten + " rows");
+                }
+            });
+            if (isCancelled()) {
+                throw new CancellationException();
+            }
+            Files.move(partial.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            updateProgress(1, 1);
+            updateMessage("Saved to " + target.getName());
+            return target;
+        } catch (Exception e) {
+            Files.deleteIfExists(partial.toPath());
+            throw e;
+        }
+    }
+
+    @Override
+    protected void cancelled() {
+        updateMessage("Cancelled");
+    }
+
+    @Override
+    protected void failed() {
+        updateMessage("Failed: " + getException().getMessage());
+    }
+}
@@ -0,0 +1,51 @@
+package com.escaperoom.utils;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queue of report exports executed on a small pool of worker threads. Jobs outlive the
+ * view that started them; the job list is shared so ReportsView can show progress
+ * whenever it is opened. Must be used from the FX Application Thread.
+ */
+public class ReportJobManager {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+        Integer.getInteger("escaperoom.reports.workerThreads", 2), r -> {
+            Thread thread = new Thread(r, "report-worker-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    private static final ObservableList<ReportJob> JOBS = FXCollections.observableArrayList();
+
+    public static ReportJob submit(String name, File target, ReportJob.Work work) {
+        ReportJob job = new ReportJob(name, target, work);
+        job.setOnSucceeded(e -> AlertUtil.showSuccess("Report Ready", name + " was saved to " + target.getAbsolutePath()));
+        job.setOnFailed(e -> AlertUtil.showError("Export Error", "Failed to export " + name + ": " + job.getException().getMessage()));
+        JOBS.add(0, job);
+        EXECUTOR.execute(job);
+        return job;
+    }
+
+    public static ObservableList<ReportJob> getJobs() {
+        return JOBS;
+    }
+
+    public static void clearFinished() {
+        JOBS.removeIf(job -> job.isDone());
+    }
+
+    public static void shutdown() {
+        for (ReportJob job : JOBS) {
+            job.cancel(true);
+        }
+        EXECUTOR.shutdownNow();
+    }
+}
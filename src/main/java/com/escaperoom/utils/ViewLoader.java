@@ -0,0 +1,136 @@
+package com.escaperoom.utils;
+
+import com.escaperoom.diagnostics.FlightEvents;
+import com.escaperoom.diagnostics.ViewLoadEvent;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs view data loading off the FX Application Thread. Each view owns one loader;
+ * starting a load with the same name supersedes the previous one, and cancelAll()
+ * is called when the user navigates away so stale results are never applied.
+ * Loads can also wrap a CompletableFuture already started elsewhere, e.g. by AsyncDao.
+ */
+public class ViewLoader {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+        Integer.getInteger("escaperoom.ui.loaderThreads", 4), r -> {
+            Thread thread = new Thread(r, "view-loader-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    private final String viewName;
+    private final Map<String, Future<?>> running = new ConcurrentHashMap<>();
+
+    // The view name labels this loader's Flight Recorder events
+    public ViewLoader(String viewName) {
+        this.viewName = viewName;
+    }
+
+    public <T> Task<T> load(String name, Callable<T> work, Consumer<T> onSuccess) {
+        return load(name, work, onSuccess,
+            error -> AlertUtil.showError("Load Error", "Failed to load data: " + error.getMessage()));
+    }
+
+    public <T> Task<T> load(String name, Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        Task<T> task = new Task<T>() {
+            @Override
+            protected T call() throws Exception {
+                return work.call();
+            }
+        };
+
+        ViewLoadEvent event = FlightEvents.ENABLED ? new ViewLoadEvent(viewName, name) : null;
+        if (event != null) {
+            event.begin();
+        }
+
+        // Task handlers already run on the FX thread; they are ignored once the task is cancelled.
+        task.setOnSucceeded(e -> {
+            running.remove(name, task);
+            onSuccess.accept(task.getValue());
+            commit(event, "succeeded");
+        });
+        task.setOnFailed(e -> {
+            running.remove(name, task);
+            onFailure.accept(task.getException());
+            commit(event, "failed");
+        });
+        if (event != null) {
+            task.setOnCancelled(e -> commit(event, "cancelled"));
+        }
+
+        Future<?> previous = running.put(name, task);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+        EXECUTOR.execute(task);
+        return task;
+    }
+
+    public <T> CompletableFuture<T> load(String name, CompletableFuture<T> future, Consumer<T> onSuccess) {
+        return load(name, future, onSuccess,
+            error -> AlertUtil.showError("Load Error", "Failed to load data: " + error.getMessage()));
+    }
+
+    // The handlers run on the FX thread unless the load was superseded or cancelled by then.
+    public <T> CompletableFuture<T> load(String name, CompletableFuture<T> future, Consumer<T> onSuccess,
+                                         Consumer<Throwable> onFailure) {
+        ViewLoadEvent event = FlightEvents.ENABLED ? new ViewLoadEvent(viewName, name) : null;
+        if (event != null) {
+            event.begin();
+        }
+
+        Future<?> previous = running.put(name, future);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+        future.whenComplete((value, error) -> Platform.runLater(() -> {
+            if (!running.remove(name, future)) {
+                commit(event, "cancelled");
+            } else if (error != null) {
+                onFailure.accept(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                commit(event, "failed");
+            } else {
+                onSuccess.accept(value);
+                commit(event, "succeeded");
+            }
+        }));
+        return future;
+    }
+
+    public boolean isLoading(String name) {
+        return running.containsKey(name);
+    }
+
+    public void cancelAll() {
+        for (Future<?> task : running.values()) {
+            task.cancel(true);
+        }
+        running.clear();
+    }
+
+    private static void commit(ViewLoadEvent event, String outcome) {
+        if (event != null) {
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+}
@@ -1,10 +1,12 @@
 package com.escaperoom.views;
 
 import com.escaperoom.dao.BookingDAO;
+import com.escaperoom.dao.Page;
 import com.escaperoom.dao.PlayerDAO;
 import com.escaperoom.dao.RoomDAO;
 import com.escaperoom.models.*;
 import com.escaperoom.utils.AlertUtil;
+import com.escaperoom.utils.ViewLoader;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -24,6 +26,8 @@ import java.util.List;
 
 public class BookingManagementView {
     
+    private static final int PAGE_SIZE = 100;
+    
     private Stage primaryStage;
     private User currentUser;
     private BookingDAO bookingDAO;
@@ -32,6 +36,9 @@ public class BookingManagementView {
     private TableView<Booking> bookingTable;
     private ObservableList<Booking> bookingList;
     private ComboBox<String> statusFilter;
+    private Button loadMoreButton;
+    private String nextCursor;
+    private ViewLoader viewLoader;
     
     public BookingManagementView(Stage primaryStage, User currentUser) {
         this.primaryStage = primaryStage;
@@ -40,6 +47,7 @@ public class BookingManagementView {
         this.roomDAO = new RoomDAO();
         this.playerDAO = new PlayerDAO();
         this.bookingList = FXCollections.observableArrayList();
+        this.viewLoader = new ViewLoader("BookingManagementView");
     }
     
     public Scene createScene() {
@@ -84,7 +92,10 @@ public class BookingManagementView {
         HBox actionBar = createActionBar();
         bookingTable = createBookingTable();
         
-        content.getChildren().addAll(filterBar, actionBar, bookingTable);
+        loadMoreButton = new Button("Load More");
+        loadMoreButton.setOnAction(e -> loadNextPage());
+        
+        content.getChildren().addAll(filterBar, actionBar, bookingTable, loadMoreButton);
         
         loadBookings();
         
@@ -205,22 +216,28 @@ public class BookingManagementView {
     }
     
     private void loadBookings() {
-        List<Booking> bookings = bookingDAO.findAll();
         bookingList.clear();
-        bookingList.addAll(bookings);
+        nextCursor = null;
+        loadNextPage();
     }
     
-    private void filterBookings() {
+    private void loadNextPage() {
         String status = statusFilter.getValue();
-        
-        if (status.equals("All")) {
-            loadBookings();
-            return;
-        }
-        
-        List<Booking> bookings = bookingDAO.findByStatus(BookingStatus.valueOf(status));
-        bookingList.clear();
-        bookingList.addAll(bookings);
+        BookingStatus statusValue = status.equals("All") ? null : BookingStatus.valueOf(status);
+        String cursor = nextCursor;
+        
+        loadMoreButton.setDisable(true);
+        bookingTable.setPlaceholder(new ProgressIndicator());
+        viewLoader.load("bookings", () -> bookingDAO.findPage(statusValue, cursor, PAGE_SIZE), page -> {
+            bookingList.addAll(page.getItems());
+            nextCursor = page.getNextCursor();
+            loadMoreButton.setDisable(!page.hasNext());
+            bookingTable.setPlaceholder(new Label("No bookings found"));
+        });
+    }
+    
+    private void filterBookings() {
+        loadBookings();
     }
     
     private void clearFilter() {
@@ -248,9 +265,22 @@ public class BookingManagementView {
         
         dialog.showAndWait().ifPresent(booking -> {
             if (booking != null) {
-                bookingDAO.save(booking);
-                loadBookings();
-                AlertUtil.showSuccess("Success", "Booking created successfully!");
+                Room room = booking.getRoom();
+                viewLoader.load("availability", () -> bookingDAO.isRoomAvailable(room.getId(), booking.getScheduledTime()), available -> {
+                    if (!available) {
+                        viewLoader.load("nextFreeSlot", () -> bookingDAO.findNextFreeSlot(room.getId(), booking.getScheduledTime(), room.getDuration()), nextFree ->
+                            AlertUtil.showError("Room Unavailable", "The room is already booked at that time." +
+                                (nextFree != null ? " Next free slot: " + nextFree.format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")) : "")));
+                        return;
+                    }
+                    if (!bookingDAO.save(booking)) {
+                        AlertUtil.showError("Booking Not Saved", "The booking could not be saved. "
+                            + "The room may have been booked from another terminal in the meantime.");
+                        return;
+                    }
+                    loadBookings();
+                    AlertUtil.showSuccess("Success", "Booking created successfully!");
+                });
             }
         });
     }
@@ -385,6 +415,7 @@ public class BookingManagementView {
     }
     
     private void backToDashboard() {
+        viewLoader.cancelAll();
         boolean wasFullScreen = primaryStage.isFullScreen();
         DashboardView dashboardView = new DashboardView(primaryStage, currentUser);
         Scene scene = dashboardView.createScene();
@@ -4,6 +4,8 @@ import com.escaperoom.dao.*;
 import com.escaperoom.models.Player;
 import com.escaperoom.models.Room;
 import com.escaperoom.models.User;
+import com.escaperoom.utils.AlertUtil;
+import com.escaperoom.utils.ViewLoader;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -13,26 +15,20 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 
-import java.time.LocalDateTime;
-import java.util.List;
 
 
 public class DashboardView {
     
     private Stage primaryStage;
     private User currentUser;
-    private RoomDAO roomDAO;
-    private BookingDAO bookingDAO;
-    private PlayerDAO playerDAO;
-    private GameSessionDAO gameSessionDAO;
+    private AsyncDao asyncDao;
+    private ViewLoader viewLoader;
     
     public DashboardView(Stage primaryStage, User currentUser) {
         this.primaryStage = primaryStage;
         this.currentUser = currentUser;
-        this.roomDAO = new RoomDAO();
-        this.bookingDAO = new BookingDAO();
-        this.playerDAO = new PlayerDAO();
-        this.gameSessionDAO = new GameSessionDAO();
+        this.asyncDao = new AsyncDao();
+        this.viewLoader = new ViewLoader("DashboardView");
     }
     
     public Scene createScene() {
@@ -87,30 +83,41 @@ public class DashboardView {
         HBox statsBox = new HBox(15);
         statsBox.setAlignment(Pos.CENTER);
         
-
-        int totalRooms = roomDAO.findAll().size();
-        VBox roomCard = createStatCard("Total Rooms", String.valueOf(totalRooms), "🏠");
-
-        LocalDateTime startOfDay = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
-        LocalDateTime endOfDay = LocalDateTime.now().withHour(23).withMinute(59).withSecond(59);
-        int todayBookings = bookingDAO.findByDateRange(startOfDay, endOfDay).size();
-        VBox bookingCard = createStatCard("Bookings Today", String.valueOf(todayBookings), "📅");
+        Label roomsValue = new Label("...");
+        Label bookingsValue = new Label("...");
+        Label revenueValue = new Label("...");
+        Label playersValue = new Label("...");
         
-
-        LocalDateTime startOfMonth = LocalDateTime.now().withDayOfMonth(1).withHour(0).withMinute(0);
-        LocalDateTime now = LocalDateTime.now();
-        double monthRevenue = gameSessionDAO.getTotalRevenue(startOfMonth, now);
-        VBox revenueCard = createStatCard("Revenue This Month", String.format("%.2f KM", monthRevenue), "💰");
-
-        int totalPlayers = playerDAO.findAll().size();
-        VBox playerCard = createStatCard("Total Players", String.valueOf(totalPlayers), "👥");
+        VBox roomCard = createStatCard("Total Rooms", roomsValue, "🏠");
+        VBox bookingCard = createStatCard("Bookings Today", bookingsValue, "📅");
+        VBox revenueCard = createStatCard("Revenue This Month", revenueValue, "💰");
+        VBox playerCard = createStatCard("Total Players", playersValue, "👥");
         
         statsBox.getChildren().addAll(roomCard, bookingCard, revenueCard, playerCard);
+
+        // Started together with the leaderboard; both run on the database executor
+        viewLoader.load("statistics", asyncDao.getDashboardStats(), stats -> {
+            if (stats == null) {
+                showStatisticsUnavailable("dashboard statistics are unavailable", roomsValue, bookingsValue, revenueValue, playersValue);
+                return;
+            }
+            roomsValue.setText(String.valueOf(stats.getTotalRooms()));
+            bookingsValue.setText(String.valueOf(stats.getBookingsToday()));
+            revenueValue.setText(String.format("%.2f KM", stats.getRevenueThisMonth()));
+            playersValue.setText(String.valueOf(stats.getTotalPlayers()));
+        }, error -> showStatisticsUnavailable(error.getMessage(), roomsValue, bookingsValue, revenueValue, playersValue));
         
         return statsBox;
     }
     
-    private VBox createStatCard(String title, String value, String emoji) {
+    private void showStatisticsUnavailable(String reason, Label... values) {
+        for (Label value : values) {
+            value.setText("N/A");
+        }
+        AlertUtil.showError("Load Error", "Failed to load data: " + reason);
+    }
+    
+    private VBox createStatCard(String title, Label valueLabel, String emoji) {
         VBox card = new VBox(10);
         card.setAlignment(Pos.CENTER);
         card.setPadding(new Insets(20));
@@ -125,7 +132,6 @@ public class DashboardView {
         titleLabel.setFont(Font.font("Arial", FontWeight.NORMAL, 14));
         titleLabel.getStyleClass().add("stat-title");
         
-        Label valueLabel = new Label(value);
         valueLabel.setFont(Font.font("Arial", FontWeight.BOLD, 24));
         valueLabel.getStyleClass().add("stat-value");
         
@@ -177,8 +183,11 @@ public class DashboardView {
         
         table.getColumns().addAll(rankCol, nameCol, gamesCol, winRateCol, avgTimeCol);
         
-        List<Player> topPlayers = playerDAO.getTopPlayers(5);
-        table.getItems().addAll(topPlayers);
+        table.setPlaceholder(new ProgressIndicator());
+        viewLoader.load("leaderboard", asyncDao.getTopPlayers(5), topPlayers -> {
+            table.getItems().setAll(topPlayers);
+            table.setPlaceholder(new Label("No players yet"));
+        });
         
         leaderboardBox.getChildren().addAll(titleLabel, table);
         
@@ -219,11 +228,13 @@ public class DashboardView {
     }
     
     private void refreshDashboard() {
+        viewLoader.cancelAll();
         Scene scene = createScene();
         primaryStage.setScene(scene);
     }
     
     private void logout() {
+        viewLoader.cancelAll();
         LoginView loginView = new LoginView(primaryStage);
         Scene loginScene = loginView.createScene();
         primaryStage.setScene(loginScene);
@@ -234,6 +245,7 @@ public class DashboardView {
     }
     
     private void showRoomManagement() {
+        viewLoader.cancelAll();
         RoomManagementView roomView = new RoomManagementView(primaryStage, currentUser);
         Scene scene = roomView.createScene();
         primaryStage.setScene(scene);
@@ -241,6 +253,7 @@ public class DashboardView {
     }
 
     private void showBookingManagement() {
+        viewLoader.cancelAll();
         BookingManagementView bookingView = new BookingManagementView(primaryStage, currentUser);
         Scene scene = bookingView.createScene();
         primaryStage.setScene(scene);
@@ -248,6 +261,7 @@ public class DashboardView {
     }
 
     private void showPlayerManagement() {
+        viewLoader.cancelAll();
         PlayerManagementView playerView = new PlayerManagementView(primaryStage, currentUser);
         Scene scene = playerView.createScene();
         primaryStage.setScene(scene);
@@ -255,6 +269,7 @@ public class DashboardView {
     }
 
     private void showGameSessionView() {
+        viewLoader.cancelAll();
         GameSessionView sessionView = new GameSessionView(primaryStage, currentUser);
         Scene scene = sessionView.createScene();
         primaryStage.setScene(scene);
@@ -262,6 +277,7 @@ public class DashboardView {
     }
 
     private void showReports() {
+        viewLoader.cancelAll();
         ReportsView reportsView = new ReportsView(primaryStage, currentUser);
         Scene scene = reportsView.createScene();
         primaryStage.setScene(scene);
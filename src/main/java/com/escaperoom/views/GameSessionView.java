@@ -3,6 +3,7 @@ package com.escaperoom.views;
 import com.escaperoom.dao.*;
 import com.escaperoom.models.*;
 import com.escaperoom.utils.AlertUtil;
+import com.escaperoom.utils.ViewLoader;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -20,6 +21,8 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 public class GameSessionView {
     
+    private static final int PAGE_SIZE = 100;
+    
     private Stage primaryStage;
     private User currentUser;
     private GameSessionDAO gameSessionDAO;
@@ -27,6 +30,9 @@ public class GameSessionView {
     private RoomDAO roomDAO;
     private TableView<GameSession> sessionTable;
     private ObservableList<GameSession> sessionList;
+    private Button loadMoreButton;
+    private String nextCursor;
+    private ViewLoader viewLoader;
     
     public GameSessionView(Stage primaryStage, User currentUser) {
         this.primaryStage = primaryStage;
@@ -35,6 +41,7 @@ public class GameSessionView {
         this.bookingDAO = new BookingDAO();
         this.roomDAO = new RoomDAO();
         this.sessionList = FXCollections.observableArrayList();
+        this.viewLoader = new ViewLoader("GameSessionView");
     }
     
     public Scene createScene() {
@@ -78,7 +85,10 @@ public class GameSessionView {
         HBox actionBar = createActionBar();
         sessionTable = createSessionTable();
         
-        content.getChildren().addAll(actionBar, sessionTable);
+        loadMoreButton = new Button("Load More");
+        loadMoreButton.setOnAction(e -> loadNextPage());
+        
+        content.getChildren().addAll(actionBar, sessionTable, loadMoreButton);
         
         loadSessions();
         
@@ -162,9 +172,22 @@ public class GameSessionView {
     }
     
     private void loadSessions() {
-        List<GameSession> sessions = gameSessionDAO.findAll();
         sessionList.clear();
-        sessionList.addAll(sessions);
+        nextCursor = null;
+        loadNextPage();
+    }
+    
+    private void loadNextPage() {
+        String cursor = nextCursor;
+        
+        loadMoreButton.setDisable(true);
+        sessionTable.setPlaceholder(new ProgressIndicator());
+        viewLoader.load("sessions", () -> gameSessionDAO.findPage(cursor, PAGE_SIZE), page -> {
+            sessionList.addAll(page.getItems());
+            nextCursor = page.getNextCursor();
+            loadMoreButton.setDisable(!page.hasNext());
+            sessionTable.setPlaceholder(new Label("No game sessions found"));
+        });
     }
     
     private void showAddDialog() {
@@ -187,7 +210,7 @@ public class GameSessionView {
         
         dialog.showAndWait().ifPresent(session -> {
             if (session != null) {
-                gameSessionDAO.save(session);
+                gameSessionDAO.checkIn(session);
                 loadSessions();
                 AlertUtil.showSuccess("Success", "Game session added successfully!");
             }
@@ -354,6 +377,7 @@ public class GameSessionView {
     }
     
     private void backToDashboard() {
+        viewLoader.cancelAll();
         boolean wasFullScreen = primaryStage.isFullScreen();
         DashboardView dashboardView = new DashboardView(primaryStage, currentUser);
         Scene scene = dashboardView.createScene();
@@ -1,10 +1,12 @@
 package com.escaperoom.views;
 
+import com.escaperoom.dao.DataAccessException;
 import com.escaperoom.dao.UserDAO;
 import com.escaperoom.models.User;
 import com.escaperoom.models.UserRole;
 import com.escaperoom.utils.AlertUtil;
 import com.escaperoom.utils.ValidationUtil;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -16,6 +18,8 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 
+import java.util.concurrent.CompletionException;
+
 
 public class LoginView {
     
@@ -92,15 +96,27 @@ public class LoginView {
                 return;
             }
             
-            User user = userDAO.authenticate(username, password);
+            loginButton.setDisable(true);
+            loginButton.setText("Signing in...");
             
-            if (user != null) {
-                showDashboard(user);
-            } else {
-                errorLabel.setText("Invalid username or password");
+            userDAO.authenticateAsync(username, password).whenComplete((user, error) -> Platform.runLater(() -> {
+                loginButton.setDisable(false);
+                loginButton.setText("Login");
+                
+                if (user != null) {
+                    showDashboard(user);
+                    return;
+                }
+                
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                if (cause instanceof DataAccessException) {
+                    errorLabel.setText("Unable to reach the database, please try again");
+                } else {
+                    errorLabel.setText(cause != null ? cause.getMessage() : "Invalid username or password");
+                }
                 errorLabel.setVisible(true);
                 passwordField.clear();
-            }
+            }));
         });
         
         root.getChildren().addAll(titleLabel, subtitleLabel, formGrid, loginButton, registerButton, errorLabel);
@@ -1,10 +1,13 @@
 package com.escaperoom.views;
 
+import com.escaperoom.dao.Page;
 import com.escaperoom.dao.PlayerDAO;
 import com.escaperoom.models.Player;
 import com.escaperoom.models.User;
 import com.escaperoom.utils.AlertUtil;
 import com.escaperoom.utils.ValidationUtil;
+import com.escaperoom.utils.ViewLoader;
+import javafx.animation.PauseTransition;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -16,24 +19,33 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import java.util.List;
 
 
 public class PlayerManagementView {
     
+    private static final int PAGE_SIZE = 100;
+    private static final int SEARCH_DEBOUNCE_MS = 200;
+    
     private Stage primaryStage;
     private User currentUser;
     private PlayerDAO playerDAO;
     private TableView<Player> playerTable;
     private ObservableList<Player> playerList;
     private TextField searchField;
+    private PauseTransition searchDelay;
+    private Button loadMoreButton;
+    private String nextCursor;
+    private ViewLoader viewLoader;
     
     public PlayerManagementView(Stage primaryStage, User currentUser) {
         this.primaryStage = primaryStage;
         this.currentUser = currentUser;
         this.playerDAO = new PlayerDAO();
         this.playerList = FXCollections.observableArrayList();
+        this.viewLoader = new ViewLoader("PlayerManagementView");
     }
     
     public Scene createScene() {
@@ -78,7 +90,10 @@ public class PlayerManagementView {
         HBox actionBar = createActionBar();
         playerTable = createPlayerTable();
         
-        content.getChildren().addAll(filterBar, actionBar, playerTable);
+        loadMoreButton = new Button("Load More");
+        loadMoreButton.setOnAction(e -> loadNextPage());
+        
+        content.getChildren().addAll(filterBar, actionBar, playerTable, loadMoreButton);
         
         loadPlayers();
         
@@ -94,7 +109,9 @@ public class PlayerManagementView {
         searchField = new TextField();
         searchField.setPromptText("Search by name or email...");
         searchField.setPrefWidth(300);
-        searchField.textProperty().addListener((obs, oldVal, newVal) -> filterPlayers());
+        searchDelay = new PauseTransition(Duration.millis(SEARCH_DEBOUNCE_MS));
+        searchDelay.setOnFinished(e -> filterPlayers());
+        searchField.textProperty().addListener((obs, oldVal, newVal) -> searchDelay.playFromStart());
         
         Button clearButton = new Button("Clear");
         clearButton.setOnAction(e -> clearFilter());
@@ -176,32 +193,47 @@ public class PlayerManagementView {
     }
     
     private void loadPlayers() {
-        List<Player> players = playerDAO.findAll();
         playerList.clear();
-        playerList.addAll(players);
+        nextCursor = null;
+        loadNextPage();
+    }
+    
+    private void loadNextPage() {
+        String cursor = nextCursor;
+        
+        loadMoreButton.setDisable(true);
+        playerTable.setPlaceholder(new ProgressIndicator());
+        viewLoader.load("players", () -> playerDAO.findPage(cursor, PAGE_SIZE), page -> {
+            playerList.addAll(page.getItems());
+            nextCursor = page.getNextCursor();
+            loadMoreButton.setDisable(!page.hasNext());
+            playerTable.setPlaceholder(new Label("No players found"));
+        });
     }
     
     private void filterPlayers() {
-        String searchText = searchField.getText().toLowerCase();
+        String searchText = searchField.getText().trim();
         
         if (searchText.isEmpty()) {
             loadPlayers();
             return;
         }
         
-        List<Player> allPlayers = playerDAO.findAll();
         playerList.clear();
-        
-        for (Player player : allPlayers) {
-            if (player.getFullName().toLowerCase().contains(searchText) ||
-                player.getEmail().toLowerCase().contains(searchText)) {
-                playerList.add(player);
-            }
-        }
+        nextCursor = null;
+        loadMoreButton.setDisable(true);
+        playerTable.setPlaceholder(new ProgressIndicator());
+        
+        // Same name as the paged load, so a newer query or a reload supersedes this one
+        viewLoader.load("players", () -> playerDAO.search(searchText), matches -> {
+            playerList.setAll(matches);
+            playerTable.setPlaceholder(new Label("No players found"));
+        });
     }
     
     private void clearFilter() {
         searchField.clear();
+        searchDelay.stop();
         loadPlayers();
     }
     
@@ -299,7 +331,8 @@ public class PlayerManagementView {
     
     private Player extractPlayerFromForm(GridPane grid, Player existingPlayer) {
         try {
-            Player player = existingPlayer != null ? existingPlayer : new Player();
+            // Edit a copy so a rejected or failed edit leaves the listed player untouched
+            Player player = existingPlayer != null ? existingPlayer.copy() : new Player();
             
             for (javafx.scene.Node node : grid.getChildren()) {
                 Object userData = node.getUserData();
@@ -366,6 +399,7 @@ public class PlayerManagementView {
     }
     
     private void backToDashboard() {
+        viewLoader.cancelAll();
         boolean wasFullScreen = primaryStage.isFullScreen();
         DashboardView dashboardView = new DashboardView(primaryStage, currentUser);
         Scene scene = dashboardView.createScene();
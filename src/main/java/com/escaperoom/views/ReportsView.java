@@ -4,6 +4,10 @@ import com.escaperoom.dao.*;
 import com.escaperoom.models.*;
 import com.escaperoom.utils.AlertUtil;
 import com.escaperoom.utils.PDFExporter;
+import com.escaperoom.utils.ReportJob;
+import com.escaperoom.utils.ReportJobManager;
+import com.escaperoom.utils.ViewLoader;
+import javafx.beans.binding.Bindings;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -17,8 +21,10 @@ import java.io.File;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 
 public class ReportsView {
@@ -29,6 +35,7 @@ public class ReportsView {
     private RoomDAO roomDAO;
     private PlayerDAO playerDAO;
     private BookingDAO bookingDAO;
+    private ViewLoader viewLoader;
     
     public ReportsView(Stage primaryStage, User currentUser) {
         this.primaryStage = primaryStage;
@@ -37,6 +44,7 @@ public class ReportsView {
         this.roomDAO = new RoomDAO();
         this.playerDAO = new PlayerDAO();
         this.bookingDAO = new BookingDAO();
+        this.viewLoader = new ViewLoader("ReportsView");
     }
     
     public Scene createScene() {
@@ -45,6 +53,7 @@ public class ReportsView {
         
         root.setTop(createHeader());
         root.setCenter(createContent());
+        root.setBottom(createJobsPanel());
         
         Scene scene = new Scene(root, 1200, 800);
         scene.getStylesheets().add(getClass().getResource("/style.css").toExternalForm());
@@ -120,23 +129,8 @@ public class ReportsView {
             LocalDateTime start = fromDate.getValue().atStartOfDay();
             LocalDateTime end = toDate.getValue().atTime(23, 59, 59);
             
-            double totalRevenue = gameSessionDAO.getTotalRevenue(start, end);
-            Map<Room, Double> revenueByRoom = gameSessionDAO.getRevenueByRoom(start, end);
-            
-            StringBuilder report = new StringBuilder();
-            report.append("REVENUE REPORT\n");
-            report.append("=" .repeat(50)).append("\n\n");
-            report.append("Period: ").append(start.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
-            report.append(" to ").append(end.format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))).append("\n\n");
-            report.append("Total Revenue: ").append(String.format("%.2f KM", totalRevenue)).append("\n\n");
-            report.append("Revenue by Room:\n");
-            report.append("-".repeat(50)).append("\n");
-            
-            for (Map.Entry<Room, Double> entry : revenueByRoom.entrySet()) {
-                report.append(String.format("%-30s: %10.2f KM\n", entry.getKey().getName(), entry.getValue()));
-            }
-            
-            reportArea.setText(report.toString());
+            reportArea.setText("Generating report...");
+            viewLoader.load("revenueReport", () -> buildRevenueReport(start, end), reportArea::setText);
         });
         
         box.getChildren().addAll(titleLabel, dateBox, reportArea);
@@ -144,6 +138,26 @@ public class ReportsView {
         return box;
     }
     
+    private String buildRevenueReport(LocalDateTime start, LocalDateTime end) {
+        double totalRevenue = gameSessionDAO.getTotalRevenue(start, end);
+        Map<Room, Double> revenueByRoom = gameSessionDAO.getRevenueByRoom(start, end);
+        
+        StringBuilder report = new StringBuilder();
+        report.append("REVENUE REPORT\n");
+        report.append("=" .repeat(50)).append("\n\n");
+        report.append("Period: ").append(start.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
+        report.append(" to ").append(end.format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))).append("\n\n");
+        report.append("Total Revenue: ").append(String.format("%.2f KM", totalRevenue)).append("\n\n");
+        report.append("Revenue by Room:\n");
+        report.append("-".repeat(50)).append("\n");
+        
+        for (Map.Entry<Room, Double> entry : revenueByRoom.entrySet()) {
+            report.append(String.format("%-30s: %10.2f KM\n", entry.getKey().getName(), entry.getValue()));
+        }
+        
+        return report.toString();
+    }
+    
     private VBox createPlayerStatistics() {
         VBox box = new VBox(15);
         box.setPadding(new Insets(20));
@@ -158,6 +172,15 @@ public class ReportsView {
         reportArea.setEditable(false);
         reportArea.setPrefRowCount(20);
 
+        reportArea.setText("Loading player statistics...");
+        viewLoader.load("playerStatistics", this::buildPlayerStatisticsReport, reportArea::setText);
+        
+        box.getChildren().addAll(titleLabel, exportButton, reportArea);
+        
+        return box;
+    }
+    
+    private String buildPlayerStatisticsReport() {
         List<Player> topPlayers = playerDAO.getTopPlayers(20);
         StringBuilder report = new StringBuilder();
         report.append("TOP PLAYERS LEADERBOARD\n");
@@ -177,11 +200,7 @@ public class ReportsView {
                 player.getAverageTime()));
         }
         
-        reportArea.setText(report.toString());
-        
-        box.getChildren().addAll(titleLabel, exportButton, reportArea);
-        
-        return box;
+        return report.toString();
     }
     
     private VBox createRoomPerformance() {
@@ -198,6 +217,15 @@ public class ReportsView {
         reportArea.setEditable(false);
         reportArea.setPrefRowCount(20);
 
+        reportArea.setText("Loading room performance...");
+        viewLoader.load("roomPerformance", this::buildRoomPerformanceReport, reportArea::setText);
+        
+        box.getChildren().addAll(titleLabel, exportButton, reportArea);
+        
+        return box;
+    }
+    
+    private String buildRoomPerformanceReport() {
         List<Room> rooms = roomDAO.findAll();
         StringBuilder report = new StringBuilder();
         report.append("ROOM PERFORMANCE REPORT\n");
@@ -214,11 +242,7 @@ public class ReportsView {
                 room.isActive() ? "Yes" : "No"));
         }
         
-        reportArea.setText(report.toString());
-        
-        box.getChildren().addAll(titleLabel, exportButton, reportArea);
-        
-        return box;
+        return report.toString();
     }
     
     private VBox createBookingReport() {
@@ -249,35 +273,10 @@ public class ReportsView {
         reportArea.setPrefRowCount(20);
         
         generateButton.setOnAction(e -> {
-            List<Booking> bookings;
             String status = statusCombo.getValue();
             
-            if (status.equals("All")) {
-                bookings = bookingDAO.findAll();
-            } else {
-                bookings = bookingDAO.findByStatus(BookingStatus.valueOf(status));
-            }
-            
-            StringBuilder report = new StringBuilder();
-            report.append("BOOKING REPORT\n");
-            report.append("=".repeat(80)).append("\n\n");
-            report.append("Filter: Status = ").append(status).append("\n");
-            report.append("Total Bookings: ").append(bookings.size()).append("\n\n");
-            report.append(String.format("%-5s %-25s %-20s %-12s %-10s\n", 
-                "ID", "Room", "Scheduled Time", "Status", "Price"));
-            report.append("-".repeat(80)).append("\n");
-            
-            for (Booking booking : bookings) {
-                report.append(String.format("%-5d %-25s %-20s %-12s %-10.2f\n",
-                    booking.getId(),
-                    booking.getRoom() != null ? booking.getRoom().getName() : "N/A",
-                    booking.getScheduledTime() != null ? 
-                        booking.getScheduledTime().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")) : "N/A",
-                    booking.getStatus(),
-                    booking.getTotalPrice()));
-            }
-            
-            reportArea.setText(report.toString());
+            reportArea.setText("Generating report...");
+            viewLoader.load("bookingReport", () -> buildBookingReport(status), reportArea::setText);
         });
         
         box.getChildren().addAll(titleLabel, filterBox, reportArea);
@@ -285,14 +284,49 @@ public class ReportsView {
         return box;
     }
     
+    private String buildBookingReport(String status) {
+        List<Booking> bookings;
+        
+        if (status.equals("All")) {
+            bookings = bookingDAO.findAll();
+        } else {
+            bookings = bookingDAO.findByStatus(BookingStatus.valueOf(status));
+        }
+        
+        StringBuilder report = new StringBuilder();
+        report.append("BOOKING REPORT\n");
+        report.append("=".repeat(80)).append("\n\n");
+        report.append("Filter: Status = ").append(status).append("\n");
+        report.append("Total Bookings: ").append(bookings.size()).append("\n\n");
+        report.append(String.format("%-5s %-25s %-20s %-12s %-10s\n", 
+            "ID", "Room", "Scheduled Time", "Status", "Price"));
+        report.append("-".repeat(80)).append("\n");
+        
+        for (Booking booking : bookings) {
+            report.append(String.format("%-5d %-25s %-20s %-12s %-10.2f\n",
+                booking.getId(),
+                booking.getRoom() != null ? booking.getRoom().getName() : "N/A",
+                booking.getScheduledTime() != null ? 
+                    booking.getScheduledTime().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")) : "N/A",
+                booking.getStatus(),
+                booking.getTotalPrice()));
+        }
+        
+        return report.toString();
+    }
+    
     private void exportRevenueToPDF(DatePicker fromDate, DatePicker toDate) {
-        try {
-            LocalDateTime start = fromDate.getValue().atStartOfDay();
-            LocalDateTime end = toDate.getValue().atTime(23, 59, 59);
-            
-            double totalRevenue = gameSessionDAO.getTotalRevenue(start, end);
+        File file = chooseReportFile("Save Revenue Report", "revenue_report.pdf");
+        if (file == null) {
+            return;
+        }
+        
+        LocalDateTime start = fromDate.getValue().atStartOfDay();
+        LocalDateTime end = toDate.getValue().atTime(23, 59, 59);
+        
+        ReportJobManager.submit("Revenue Report", file, (filePath, progress) -> {
             Map<Room, Double> revenueByRoom = gameSessionDAO.getRevenueByRoom(start, end);
-
+            
             List<String[]> tableData = new ArrayList<>();
             for (Map.Entry<Room, Double> entry : revenueByRoom.entrySet()) {
                 tableData.add(new String[]{
@@ -303,24 +337,18 @@ public class ReportsView {
             
             String[] headers = {"Room", "Revenue"};
             PDFExporter exporter = new PDFExporter("Revenue Report", headers, tableData);
-            
-            FileChooser fileChooser = new FileChooser();
-            fileChooser.setTitle("Save Revenue Report");
-            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("PDF Files", "*.pdf"));
-            fileChooser.setInitialFileName("revenue_report.pdf");
-            
-            File file = fileChooser.showSaveDialog(primaryStage);
-            if (file != null) {
-                exporter.exportToPDF(file.getAbsolutePath());
-                AlertUtil.showSuccess("Success", "Report exported to PDF successfully!");
-            }
-        } catch (Exception e) {
-            AlertUtil.showError("Export Error", "Failed to export report: " + e.getMessage());
-        }
+            exporter.setProgressListener(progress);
+            exporter.exportToPDF(filePath);
+        });
     }
     
     private void exportPlayersToPDF() {
-        try {
+        File file = chooseReportFile("Save Player Statistics Report", "players_report.pdf");
+        if (file == null) {
+            return;
+        }
+        
+        ReportJobManager.submit("Top Players Report", file, (filePath, progress) -> {
             List<Player> topPlayers = playerDAO.getTopPlayers(20);
             
             List<String[]> tableData = new ArrayList<>();
@@ -337,24 +365,18 @@ public class ReportsView {
             
             String[] headers = {"Rank", "Name", "Games", "Win Rate", "Avg Time"};
             PDFExporter exporter = new PDFExporter("Top Players Report", headers, tableData);
-            
-            FileChooser fileChooser = new FileChooser();
-            fileChooser.setTitle("Save Player Statistics Report");
-            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("PDF Files", "*.pdf"));
-            fileChooser.setInitialFileName("players_report.pdf");
-            
-            File file = fileChooser.showSaveDialog(primaryStage);
-            if (file != null) {
-                exporter.exportToPDF(file.getAbsolutePath());
-                AlertUtil.showSuccess("Success", "Report exported to PDF successfully!");
-            }
-        } catch (Exception e) {
-            AlertUtil.showError("Export Error", "Failed to export report: " + e.getMessage());
-        }
+            exporter.setProgressListener(progress);
+            exporter.exportToPDF(filePath);
+        });
     }
     
     private void exportRoomPerformanceToPDF() {
-        try {
+        File file = chooseReportFile("Save Room Performance Report", "rooms_report.pdf");
+        if (file == null) {
+            return;
+        }
+        
+        ReportJobManager.submit("Room Performance Report", file, (filePath, progress) -> {
             List<Room> rooms = roomDAO.findAll();
             
             List<String[]> tableData = new ArrayList<>();
@@ -370,63 +392,103 @@ public class ReportsView {
             
             String[] headers = {"Room", "Theme", "Rating", "Price", "Active"};
             PDFExporter exporter = new PDFExporter("Room Performance Report", headers, tableData);
-            
-            FileChooser fileChooser = new FileChooser();
-            fileChooser.setTitle("Save Room Performance Report");
-            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("PDF Files", "*.pdf"));
-            fileChooser.setInitialFileName("rooms_report.pdf");
-            
-            File file = fileChooser.showSaveDialog(primaryStage);
-            if (file != null) {
-                exporter.exportToPDF(file.getAbsolutePath());
-                AlertUtil.showSuccess("Success", "Report exported to PDF successfully!");
-            }
-        } catch (Exception e) {
-            AlertUtil.showError("Export Error", "Failed to export report: " + e.getMessage());
-        }
+            exporter.setProgressListener(progress);
+            exporter.exportToPDF(filePath);
+        });
     }
     
     private void exportBookingsToPDF(String status) {
-        try {
-            List<Booking> bookings;
-            
-            if (status.equals("All")) {
-                bookings = bookingDAO.findAll();
-            } else {
-                bookings = bookingDAO.findByStatus(BookingStatus.valueOf(status));
-            }
-            
-            List<String[]> tableData = new ArrayList<>();
-            for (Booking booking : bookings) {
-                tableData.add(new String[]{
+        File file = chooseReportFile("Save Booking Report", "bookings_report.pdf");
+        if (file == null) {
+            return;
+        }
+        
+        BookingStatus statusFilter = status.equals("All") ? null : BookingStatus.valueOf(status);
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+        
+        // Rows are streamed from the database straight into the PDF, so the report size is not bounded by the heap
+        ReportJobManager.submit("Booking Report (" + status + ")", file, (filePath, progress) -> {
+            int total = bookingDAO.countByStatus(statusFilter);
+            try (Stream<Booking> bookings = bookingDAO.streamByStatus(statusFilter)) {
+                Iterator<String[]> rows = bookings.map(booking -> new String[]{
                     String.valueOf(booking.getId()),
                     booking.getRoom() != null ? booking.getRoom().getName() : "N/A",
-                    booking.getScheduledTime() != null ? 
-                        booking.getScheduledTime().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")) : "N/A",
+                    booking.getScheduledTime() != null ? booking.getScheduledTime().format(formatter) : "N/A",
                     booking.getStatus().toString(),
                     String.format("%.2f KM", booking.getTotalPrice())
-                });
+                }).iterator();
+                
+                String[] headers = {"ID", "Room", "Scheduled Time", "Status", "Price"};
+                PDFExporter exporter = new PDFExporter("Booking Report (Status: " + status + ")", headers, rows, total);
+                exporter.setProgressListener(progress);
+                exporter.exportToPDF(filePath);
             }
-            
-            String[] headers = {"ID", "Room", "Scheduled Time", "Status", "Price"};
-            PDFExporter exporter = new PDFExporter("Booking Report (Status: " + status + ")", headers, tableData);
-            
-            FileChooser fileChooser = new FileChooser();
-            fileChooser.setTitle("Save Booking Report");
-            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("PDF Files", "*.pdf"));
-            fileChooser.setInitialFileName("bookings_report.pdf");
-            
-            File file = fileChooser.showSaveDialog(primaryStage);
-            if (file != null) {
-                exporter.exportToPDF(file.getAbsolutePath());
-                AlertUtil.showSuccess("Success", "Report exported to PDF successfully!");
+        });
+    }
+    
+    private File chooseReportFile(String title, String initialFileName) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(title);
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("PDF Files", "*.pdf"));
+        fileChooser.setInitialFileName(initialFileName);
+        
+        return fileChooser.showSaveDialog(primaryStage);
+    }
+    
+    private VBox createJobsPanel() {
+        VBox box = new VBox(10);
+        box.setPadding(new Insets(10, 20, 20, 20));
+        
+        HBox titleBox = new HBox(10);
+        titleBox.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
+        
+        Label titleLabel = new Label("Export Jobs");
+        titleLabel.setFont(Font.font("Arial", FontWeight.BOLD, 14));
+        
+        Button clearButton = new Button("Clear Finished");
+        clearButton.setOnAction(e -> ReportJobManager.clearFinished());
+        
+        titleBox.getChildren().addAll(titleLabel, clearButton);
+        
+        ListView<ReportJob> jobList = new ListView<>(ReportJobManager.getJobs());
+        jobList.setPrefHeight(140);
+        jobList.setPlaceholder(new Label("No exports running"));
+        jobList.setCellFactory(list -> new ListCell<ReportJob>() {
+            @Override
+            protected void updateItem(ReportJob job, boolean empty) {
+                super.updateItem(job, empty);
+                if (empty || job == null) {
+                    setGraphic(null);
+                    return;
+                }
+                
+                Label nameLabel = new Label(job.getName());
+                nameLabel.setMinWidth(220);
+                
+                ProgressBar progressBar = new ProgressBar();
+                progressBar.setPrefWidth(200);
+                progressBar.progressProperty().bind(job.progressProperty());
+                
+                Label statusLabel = new Label();
+                statusLabel.textProperty().bind(job.messageProperty());
+                
+                Button cancelButton = new Button("Cancel");
+                cancelButton.disableProperty().bind(Bindings.createBooleanBinding(job::isDone, job.stateProperty()));
+                cancelButton.setOnAction(e -> job.cancel(true));
+                
+                HBox row = new HBox(10, nameLabel, progressBar, cancelButton, statusLabel);
+                row.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
+                setGraphic(row);
             }
-        } catch (Exception e) {
-            AlertUtil.showError("Export Error", "Failed to export report: " + e.getMessage());
-        }
+        });
+        
+        box.getChildren().addAll(titleBox, jobList);
+        
+        return box;
     }
     
     private void backToDashboard() {
+        viewLoader.cancelAll();
         boolean wasFullScreen = primaryStage.isFullScreen();
         DashboardView dashboardView = new DashboardView(primaryStage, currentUser);
         Scene scene = dashboardView.createScene();
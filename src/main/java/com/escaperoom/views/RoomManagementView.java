@@ -5,6 +5,7 @@ import com.escaperoom.models.Room;
 import com.escaperoom.models.User;
 import com.escaperoom.utils.AlertUtil;
 import com.escaperoom.utils.ValidationUtil;
+import com.escaperoom.utils.ViewLoader;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -17,6 +18,7 @@ import javafx.scene.text.FontWeight;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
+import java.util.ArrayList;
 import java.util.List;
 
 
@@ -29,12 +31,14 @@ public class RoomManagementView {
     private ObservableList<Room> roomList;
     private TextField searchField;
     private ComboBox<String> themeFilter;
+    private ViewLoader viewLoader;
     
     public RoomManagementView(Stage primaryStage, User currentUser) {
         this.primaryStage = primaryStage;
         this.currentUser = currentUser;
         this.roomDAO = new RoomDAO();
         this.roomList = FXCollections.observableArrayList();
+        this.viewLoader = new ViewLoader("RoomManagementView");
     }
     
     public Scene createScene() {
@@ -211,27 +215,34 @@ public class RoomManagementView {
     }
     
     private void loadRooms() {
-        List<Room> rooms = roomDAO.findAll();
-        roomList.clear();
-        roomList.addAll(rooms);
+        roomTable.setPlaceholder(new ProgressIndicator());
+        viewLoader.load("rooms", () -> roomDAO.findAll(), rooms -> {
+            roomList.setAll(rooms);
+            roomTable.setPlaceholder(new Label("No rooms found"));
+        });
     }
     
     private void filterRooms() {
         String searchText = searchField.getText().toLowerCase();
         String theme = themeFilter.getValue();
         
-        List<Room> allRooms = roomDAO.findAll();
-        roomList.clear();
-        
-        for (Room room : allRooms) {
-            boolean matchesSearch = searchText.isEmpty() || 
-                                   room.getName().toLowerCase().contains(searchText);
-            boolean matchesTheme = theme.equals("All") || room.getTheme().equals(theme);
-            
-            if (matchesSearch && matchesTheme) {
-                roomList.add(room);
+        roomTable.setPlaceholder(new ProgressIndicator());
+        viewLoader.load("rooms", () -> {
+            List<Room> matches = new ArrayList<>();
+            for (Room room : roomDAO.findAll()) {
+                boolean matchesSearch = searchText.isEmpty() || 
+                                       room.getName().toLowerCase().contains(searchText);
+                boolean matchesTheme = theme.equals("All") || room.getTheme().equals(theme);
+                
+                if (matchesSearch && matchesTheme) {
+                    matches.add(room);
+                }
             }
-        }
+            return matches;
+        }, matches -> {
+            roomList.setAll(matches);
+            roomTable.setPlaceholder(new Label("No rooms found"));
+        });
     }
     
     private void clearFilters() {
@@ -362,7 +373,8 @@ public class RoomManagementView {
     
     private Room extractRoomFromForm(GridPane grid, Room existingRoom) {
         try {
-            Room room = existingRoom != null ? existingRoom : new Room();
+            // Edit a copy: the selected room is the shared cached instance
+            Room room = existingRoom != null ? existingRoom.copy() : new Room();
             
             for (javafx.scene.Node node : grid.getChildren()) {
                 Object userData = node.getUserData();
@@ -441,15 +453,17 @@ public class RoomManagementView {
             return;
         }
         
-        selectedRoom.setActive(!selectedRoom.isActive());
-        roomDAO.update(selectedRoom);
+        Room room = selectedRoom.copy();
+        room.setActive(!room.isActive());
+        roomDAO.update(room);
         loadRooms();
         
-        String status = selectedRoom.isActive() ? "activated" : "deactivated";
+        String status = room.isActive() ? "activated" : "deactivated";
         AlertUtil.showSuccess("Success", "Room " + status + " successfully!");
     }
     
     private void backToDashboard() {
+        viewLoader.cancelAll();
         boolean wasFullScreen = primaryStage.isFullScreen();
         DashboardView dashboardView = new DashboardView(primaryStage, currentUser);
         Scene scene = dashboardView.createScene();
@@ -0,0 +1,8 @@
+-- Newest-first keyset pages, findByDateRange and the dashboard's bookings-today count
+CREATE INDEX idx_bookings_scheduled_time ON bookings (scheduled_time DESC, id DESC);
+
+-- findByStatus, countByStatus and keyset pages filtered by status
+CREATE INDEX idx_bookings_status_scheduled_time ON bookings (status, scheduled_time DESC, id DESC);
+
+-- findByRoom, and the availability check's per-room intervals (status covers its filter)
+CREATE INDEX idx_bookings_room_scheduled_time ON bookings (room_id, scheduled_time, status);
@@ -0,0 +1,5 @@
+-- Newest-first keyset pages of game sessions; start_time ranges use it as well
+CREATE INDEX idx_game_sessions_start_time_id ON game_sessions (start_time DESC, id DESC);
+
+-- findByRoom
+CREATE INDEX idx_game_sessions_room_start_time ON game_sessions (room_id, start_time);
@@ -0,0 +1,2 @@
+-- findAll and keyset pages ordered by name
+CREATE INDEX idx_players_name ON players (first_name, last_name, id);
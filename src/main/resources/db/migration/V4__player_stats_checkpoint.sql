@@ -0,0 +1,5 @@
+-- Highest journal sequence whose player statistics deltas are applied, per installation
+CREATE TABLE player_stats_checkpoint (
+    journal_id VARCHAR(36) PRIMARY KEY,
+    last_sequence BIGINT NOT NULL
+);
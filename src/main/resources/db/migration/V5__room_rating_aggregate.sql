@@ -0,0 +1,10 @@
+-- Running totals of the game session ratings per room, kept up to date by GameSessionDAO
+-- so average_rating is refreshed without scanning the room's sessions
+ALTER TABLE rooms ADD COLUMN rating_sum BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE rooms ADD COLUMN rating_count INT NOT NULL DEFAULT 0;
+
+-- average_rating is derived from the ratings alone; rooms without rated sessions get 0
+UPDATE rooms SET
+    rating_sum = COALESCE((SELECT SUM(rating) FROM game_sessions WHERE game_sessions.room_id = rooms.id), 0),
+    rating_count = (SELECT COUNT(rating) FROM game_sessions WHERE game_sessions.room_id = rooms.id);
+UPDATE rooms SET average_rating = CASE WHEN rating_count > 0 THEN CAST(rating_sum AS DECIMAL(12,4)) / rating_count ELSE 0 END;
@@ -0,0 +1,15 @@
+-- Revenue per room per day, maintained by GameSessionDAO alongside game_sessions.
+CREATE TABLE daily_room_revenue (
+    revenue_date DATE NOT NULL,
+    room_id INT NOT NULL,
+    revenue DECIMAL(12,2) NOT NULL DEFAULT 0,
+    sessions INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (revenue_date, room_id),
+    FOREIGN KEY (room_id) REFERENCES rooms(id) ON DELETE CASCADE
+);
+
+-- Fill it from the existing sessions
+INSERT INTO daily_room_revenue (revenue_date, room_id, revenue, sessions)
+SELECT CAST(start_time AS DATE), room_id, COALESCE(SUM(revenue), 0), COUNT(*)
+FROM game_sessions
+GROUP BY CAST(start_time AS DATE), room_id;
@@ -0,0 +1,127 @@
+package com.escaperoom.dao;
+
+import com.escaperoom.database.DatabaseConnection;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// Runs against the embedded H2 profile; each test books a room of its own for 60 minutes.
+public class AvailabilityEngineTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 15, 0, 0);
+
+    private int roomId;
+
+    @BeforeClass
+    public static void useEmbeddedDatabase() {
+        System.setProperty("escaperoom.db.profile", "embedded");
+    }
+
+    @Before
+    public void createRoom() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                 "INSERT INTO rooms (name, theme, difficulty, capacity, price, duration) VALUES ('Test Room', 'Test', 1, 4, 50.00, 60)",
+                 Statement.RETURN_GENERATED_KEYS)) {
+            stmt.executeUpdate();
+            ResultSet keys = stmt.getGeneratedKeys();
+            keys.next();
+            roomId = keys.getInt(1);
+        }
+    }
+
+    @Test
+    public void overlapIsExclusiveAtIntervalEdges() throws Exception {
+        int booking = book(DAY.withHour(10));
+        AvailabilityEngine engine = new AvailabilityEngine(60_000L);
+
+        assertTrue(engine.isAvailable(roomId, DAY.withHour(9), 0));
+        assertTrue(engine.isAvailable(roomId, DAY.withHour(11), 0));
+        assertFalse(engine.isAvailable(roomId, DAY.withHour(9).withMinute(1), 0));
+        assertFalse(engine.isAvailable(roomId, DAY.withHour(10), 0));
+        assertFalse(engine.isAvailable(roomId, DAY.withHour(10).withMinute(59), 0));
+        assertTrue(engine.isAvailable(roomId, DAY.withHour(10), booking));
+        assertTrue(engine.isAvailable(roomId, DAY.withHour(9).withMinute(30), 30, 0));
+    }
+
+    @Test
+    public void nextFreeSlotSkipsBackToBackBookings() throws Exception {
+        book(DAY.withHour(10));
+        book(DAY.withHour(11));
+        book(DAY.withHour(12));
+        AvailabilityEngine engine = new AvailabilityEngine(60_000L);
+
+        assertEquals(DAY.withHour(9), engine.findNextFreeSlot(roomId, DAY.withHour(9), 60));
+        assertEquals(DAY.withHour(13), engine.findNextFreeSlot(roomId, DAY.withHour(9).withMinute(30), 60));
+        assertEquals(DAY.withHour(13), engine.findNextFreeSlot(roomId, DAY.withHour(10).withMinute(30), 60));
+        assertEquals(DAY.withHour(13), engine.findNextFreeSlot(roomId, DAY.withHour(13), 60));
+    }
+
+    @Test
+    public void writesDuringLoadWinOverLoadedRows() throws Exception {
+        int cancelled = book(DAY.withHour(10));
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AvailabilityEngine engine = new AvailabilityEngine(60_000L) {
+            @Override
+            RoomRows readRoom(int id) throws SQLException {
+                RoomRows rows = super.readRoom(id);
+                read.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rows;
+            }
+        };
+
+        CompletableFuture<Boolean> load = CompletableFuture.supplyAsync(() -> {
+            try {
+                return engine.isAvailable(roomId, DAY.withHour(10), 0);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(read.await(10, TimeUnit.SECONDS));
+
+        // The load has already read the booking at 10:00; it is cancelled and another one made
+        engine.remove(cancelled);
+        engine.put(roomId, 999_001, DAY.withHour(14), 60);
+        release.countDown();
+
+        assertTrue(load.get(10, TimeUnit.SECONDS));
+        assertFalse(engine.contains(cancelled));
+        assertTrue(engine.contains(999_001));
+        assertFalse(engine.isAvailable(roomId, DAY.withHour(14), 0));
+    }
+
+    private int book(LocalDateTime start) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                 "INSERT INTO bookings (room_id, scheduled_time, status, number_of_players, total_price) VALUES (?, ?, 'CONFIRMED', 2, 50.00)",
+                 Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setInt(1, roomId);
+            stmt.setTimestamp(2, Timestamp.valueOf(start));
+            stmt.executeUpdate();
+            ResultSet keys = stmt.getGeneratedKeys();
+            keys.next();
+            return keys.getInt(1);
+        }
+    }
+}
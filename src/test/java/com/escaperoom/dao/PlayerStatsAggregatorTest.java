@@ -0,0 +1,173 @@
+package com.escaperoom.dao;
+
+import com.escaperoom.models.Player;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+// Runs against the embedded H2 profile, seeded from database_schema.sql and the migrations.
+public class PlayerStatsAggregatorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final PlayerDAO playerDAO = new PlayerDAO();
+
+    @BeforeClass
+    public static void useEmbeddedDatabase() {
+        System.setProperty("escaperoom.db.profile", "embedded");
+    }
+
+    @Test
+    public void flushAppliesJournaledDeltas() throws Exception {
+        Player before = playerDAO.findById(1);
+        PlayerStatsAggregator aggregator = aggregator(folder.getRoot().toPath());
+        aggregator.start();
+
+        aggregator.record(Collections.singleton(1), true, 60, 2, 1);
+        assertEquals(before.getTotalGamesPlayed(), playerDAO.findById(1).getTotalGamesPlayed());
+
+        aggregator.flush();
+        Player after = playerDAO.findById(1);
+        assertEquals(before.getTotalGamesPlayed() + 1, after.getTotalGamesPlayed());
+        assertEquals(before.getGamesWon() + 1, after.getGamesWon());
+        assertEquals(before.getGamesLost(), after.getGamesLost());
+        assertEquals(before.getTotalHintsUsed() + 2, after.getTotalHintsUsed());
+        // average_time must be computed from the game count before the increment
+        double expected = (before.getAverageTime() * before.getTotalGamesPlayed() + 60) / (before.getTotalGamesPlayed() + 1);
+        assertEquals(expected, after.getAverageTime(), 0.01);
+        assertTrue(journalLines(folder.getRoot().toPath()).isEmpty());
+
+        aggregator.shutdown();
+    }
+
+    @Test
+    public void replaysJournalAfterCrashBeforeCheckpoint() throws Exception {
+        Path journal = folder.getRoot().toPath();
+        Player before = playerDAO.findById(2);
+
+        PlayerStatsAggregator crashed = aggregator(journal);
+        crashed.start();
+        crashed.record(Collections.singleton(2), false, 90, 3, 1);
+        crashed.record(Collections.singleton(2), true, 30, 0, 1);
+        // No flush and no shutdown: the deltas exist only in the journal
+
+        PlayerStatsAggregator restarted = aggregator(journal);
+        restarted.start();
+        restarted.flush();
+        Player after = playerDAO.findById(2);
+        assertEquals(before.getTotalGamesPlayed() + 2, after.getTotalGamesPlayed());
+        assertEquals(before.getGamesWon() + 1, after.getGamesWon());
+        assertEquals(before.getGamesLost() + 1, after.getGamesLost());
+        assertEquals(before.getTotalHintsUsed() + 3, after.getTotalHintsUsed());
+        restarted.shutdown();
+
+        PlayerStatsAggregator again = aggregator(journal);
+        again.start();
+        again.flush();
+        assertEquals(after.getTotalGamesPlayed(), playerDAO.findById(2).getTotalGamesPlayed());
+        again.shutdown();
+    }
+
+    @Test
+    public void skipsEntriesCoveredByCheckpointWhenSegmentsSurvive() throws Exception {
+        Path journal = folder.getRoot().toPath();
+        Path saved = folder.newFolder("saved").toPath();
+        Player before = playerDAO.findById(3);
+
+        PlayerStatsAggregator aggregator = aggregator(journal);
+        aggregator.start();
+        aggregator.record(Collections.singleton(3), true, 45, 1, 1);
+        List<Path> segments = segments(journal);
+        for (Path segment : segments) {
+            Files.copy(segment, saved.resolve(segment.getFileName()));
+        }
+        aggregator.flush();
+        aggregator.shutdown();
+
+        // A crash after the commit but before the covered segments were deleted
+        for (Path segment : segments) {
+            Files.copy(saved.resolve(segment.getFileName()), segment, StandardCopyOption.REPLACE_EXISTING);
+        }
+        PlayerStatsAggregator restarted = aggregator(journal);
+        restarted.start();
+        restarted.flush();
+        assertEquals(before.getTotalGamesPlayed() + 1, playerDAO.findById(3).getTotalGamesPlayed());
+        restarted.shutdown();
+    }
+
+    @Test
+    public void reversalCancelsRecordedSession() throws Exception {
+        Player before = playerDAO.findById(4);
+        PlayerStatsAggregator aggregator = aggregator(folder.getRoot().toPath());
+        aggregator.start();
+
+        aggregator.record(Collections.singleton(4), true, 50, 4, 1);
+        aggregator.flush();
+        aggregator.record(Collections.singleton(4), true, 50, 4, -1);
+        aggregator.flush();
+
+        Player after = playerDAO.findById(4);
+        assertEquals(before.getTotalGamesPlayed(), after.getTotalGamesPlayed());
+        assertEquals(before.getGamesWon(), after.getGamesWon());
+        assertEquals(before.getGamesLost(), after.getGamesLost());
+        assertEquals(before.getTotalHintsUsed(), after.getTotalHintsUsed());
+        assertEquals(before.getAverageTime(), after.getAverageTime(), 0.01);
+        aggregator.shutdown();
+    }
+
+    @Test
+    public void reversalJournaledAfterCrashIsReplayedWithItsSign() throws Exception {
+        Path journal = folder.getRoot().toPath();
+        Player before = playerDAO.findById(5);
+
+        PlayerStatsAggregator crashed = aggregator(journal);
+        crashed.start();
+        crashed.record(Collections.singleton(5), false, 70, 2, 1);
+        crashed.record(Collections.singleton(5), false, 70, 2, -1);
+        crashed.record(Collections.singleton(5), true, 70, 2, 1);
+
+        PlayerStatsAggregator restarted = aggregator(journal);
+        restarted.start();
+        restarted.flush();
+        Player after = playerDAO.findById(5);
+        assertEquals(before.getTotalGamesPlayed() + 1, after.getTotalGamesPlayed());
+        assertEquals(before.getGamesWon() + 1, after.getGamesWon());
+        assertEquals(before.getGamesLost(), after.getGamesLost());
+        assertEquals(before.getTotalHintsUsed() + 2, after.getTotalHintsUsed());
+        restarted.shutdown();
+    }
+
+    private static PlayerStatsAggregator aggregator(Path journal) {
+        return new PlayerStatsAggregator(journal, 3_600_000L, 1_000, ids -> { });
+    }
+
+    private static List<Path> segments(Path journal) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(journal)) {
+            files.filter(path -> path.getFileName().toString().endsWith(".log")).forEach(segments::add);
+        }
+        return segments;
+    }
+
+    private static List<String> journalLines(Path journal) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (Path segment : segments(journal)) {
+            lines.addAll(Files.readAllLines(segment));
+        }
+        return lines;
+    }
+}